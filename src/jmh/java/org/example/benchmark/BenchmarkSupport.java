@@ -0,0 +1,57 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.service.invalidation.NoOpInvalidationBus;
+import org.example.service.security.AuthMetrics;
+import org.example.service.security.JwtTokenProvider;
+import org.example.service.security.NoOpRevocationStore;
+import org.example.service.security.SigningKeyRing;
+import org.example.service.security.TokenRevocationService;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+
+/**
+ * Builds the beans under test without a Spring context, mirroring what the container would inject.
+ */
+final class BenchmarkSupport {
+
+    static final String SECRET_KEY = "q3t6w9y$B&E)H@McQfTjWnZr4u7z!A%C*F+JaNdRgUkXp2s5v8y/B?E(G+KbPeSh";
+
+    static final long TTL_MINUTES = 45;
+
+    private BenchmarkSupport() {
+    }
+
+    static JwtTokenProvider jwtTokenProvider(long tokenCacheMaxSize) {
+        return jwtTokenProvider(tokenCacheMaxSize, SigningKeyRing.HS256);
+    }
+
+    static JwtTokenProvider jwtTokenProvider(long tokenCacheMaxSize, String signingAlgorithm) {
+        return jwtTokenProvider(tokenCacheMaxSize, signingAlgorithm, false);
+    }
+
+    static JwtTokenProvider jwtTokenProvider(long tokenCacheMaxSize, String signingAlgorithm, boolean compactToken) {
+        JwtTokenProvider provider = new JwtTokenProvider(
+          new TokenRevocationService(new NoOpRevocationStore(), TTL_MINUTES, 5, 1 << 20),
+          new SigningKeyRing(new ObjectMapper(), signingAlgorithm, "", "", "", TTL_MINUTES),
+          new AuthMetrics(new SimpleMeterRegistry()), new NoOpInvalidationBus());
+        setField(provider, "secretKey", SECRET_KEY);
+        setField(provider, "ttl", TTL_MINUTES);
+        setField(provider, "tokenCacheMaxSize", tokenCacheMaxSize);
+        setField(provider, "compactToken", compactToken);
+        provider.initSecretKey();
+        return provider;
+    }
+
+    static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        if (field == null) {
+            throw new IllegalArgumentException("No field " + name + " on " + target.getClass());
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+
+}
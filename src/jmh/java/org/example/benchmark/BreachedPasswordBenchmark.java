@@ -0,0 +1,91 @@
+package org.example.benchmark;
+
+import org.example.service.security.BreachedPasswordCorpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup in the memory-mapped breached password corpus per corpus size, including the SHA-1 of the password. The
+ * corpus of random digests is built once per trial and holds the "hit" password.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BreachedPasswordBenchmark {
+
+    private static final String HIT = "benchmark-password";
+
+    private static final String MISS = "not-in-the-corpus";
+
+    @Param({"1000000", "10000000"})
+    public int digests;
+
+    private Path corpusFile;
+
+    private BreachedPasswordCorpus corpus;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        byte[][] records = new byte[digests][];
+        Random random = new Random(42);
+        for (int i = 1; i < digests; i++) {
+            records[i] = new byte[20];
+            random.nextBytes(records[i]);
+        }
+        records[0] = MessageDigest.getInstance("SHA-1").digest(HIT.getBytes(StandardCharsets.UTF_8));
+        Arrays.sort(records, Arrays::compareUnsigned);
+
+        Path source = Files.createTempFile("breached-passwords", ".txt");
+        corpusFile = Files.createTempFile("breached-passwords", ".sha1");
+        HexFormat hex = HexFormat.of().withUpperCase();
+        try (BufferedWriter writer = Files.newBufferedWriter(source, StandardCharsets.US_ASCII)) {
+            for (byte[] record : records) {
+                writer.write(hex.formatHex(record));
+                writer.newLine();
+            }
+        }
+        BreachedPasswordCorpus.compile(source, corpusFile);
+        Files.delete(source);
+        corpus = new BreachedPasswordCorpus(corpusFile.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(corpusFile);
+    }
+
+    @Benchmark
+    public boolean hit() {
+        return corpus.isBreached(HIT);
+    }
+
+    @Benchmark
+    public boolean miss() {
+        return corpus.isBreached(MISS);
+    }
+
+}
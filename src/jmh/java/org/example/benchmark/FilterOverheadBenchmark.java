@@ -0,0 +1,143 @@
+package org.example.benchmark;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.commons.lang3.StringUtils;
+import org.example.config.security.ExcludedPathMatcher;
+import org.example.entity.UserRole;
+import org.example.service.security.JwtAuthenticationFilter;
+import org.example.service.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request overhead of the token filter, before and after the precompiled path exclusion. "legacy" reproduces
+ * the previous filter: an AntPathMatcher stream in shouldNotFilter and a new WebAuthenticationDetailsSource per
+ * authenticated request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FilterOverheadBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    @Param({"/api/auth", "/api/users/benchmark"})
+    public String path;
+
+    private final AntPathMatcher antPathMatcher = new AntPathMatcher();
+
+    private final List<String> legacyExcludeUrls = List.of("/api/auth");
+
+    private ExcludedPathMatcher excludedPathMatcher;
+
+    private JwtAuthenticationFilter filter;
+
+    private LegacyJwtAuthenticationFilter legacyFilter;
+
+    private String bearer;
+
+    @Setup
+    public void setup() {
+        JwtTokenProvider jwtTokenProvider = BenchmarkSupport.jwtTokenProvider(10_000);
+        excludedPathMatcher = new ExcludedPathMatcher();
+        filter = new JwtAuthenticationFilter(jwtTokenProvider, excludedPathMatcher);
+        legacyFilter = new LegacyJwtAuthenticationFilter(jwtTokenProvider, legacyExcludeUrls);
+        bearer = "Bearer " + jwtTokenProvider.generateToken("benchmark", Set.of(UserRole.USER));
+    }
+
+    @Benchmark
+    public boolean legacyShouldNotFilter() {
+        return legacyExcludeUrls.stream().anyMatch(p -> antPathMatcher.match(p, path));
+    }
+
+    @Benchmark
+    public boolean shouldNotFilter() {
+        return excludedPathMatcher.matches(path);
+    }
+
+    @Benchmark
+    public Object legacyFilterChain() throws Exception {
+        return run(legacyFilter);
+    }
+
+    @Benchmark
+    public Object filterChain() throws Exception {
+        return run(filter);
+    }
+
+    private Object run(OncePerRequestFilter target) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        request.addHeader(HttpHeaders.AUTHORIZATION, bearer);
+        try {
+            target.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    static class LegacyJwtAuthenticationFilter extends OncePerRequestFilter {
+
+        private final AntPathMatcher antPathMatcher = new AntPathMatcher();
+
+        private final JwtTokenProvider jwtTokenProvider;
+
+        private final List<String> excludeUrls;
+
+        LegacyJwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, List<String> excludeUrls) {
+            this.jwtTokenProvider = jwtTokenProvider;
+            this.excludeUrls = excludeUrls;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+            final String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+            if (StringUtils.startsWith(header, "Bearer ")) {
+                UsernamePasswordAuthenticationToken authentication = jwtTokenProvider.validateToken(header.substring("Bearer ".length()));
+                if (authentication != null) {
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
+            }
+            filterChain.doFilter(request, response);
+        }
+
+        @Override
+        protected boolean shouldNotFilter(HttpServletRequest request) {
+            String requestPath = request.getRequestURI();
+            return excludeUrls.stream().anyMatch(p -> antPathMatcher.match(p, requestPath));
+        }
+
+    }
+
+}
@@ -0,0 +1,58 @@
+package org.example.benchmark;
+
+import org.example.entity.UserRole;
+import org.example.service.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold vs. warm bearer token validation: "cold" runs with the verified-token cache disabled so every call pays
+ * for the HMAC check and the payload decoding, "warm" validates the same token against a populated cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtValidationBenchmark {
+
+    private JwtTokenProvider coldProvider;
+
+    private JwtTokenProvider warmProvider;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        coldProvider = BenchmarkSupport.jwtTokenProvider(0);
+        warmProvider = BenchmarkSupport.jwtTokenProvider(10_000);
+        token = warmProvider.generateToken("benchmark", Set.of(UserRole.USER, UserRole.MOD));
+        if (warmProvider.validateToken(token) == null) {
+            throw new IllegalStateException("Benchmark token does not validate");
+        }
+    }
+
+    @Benchmark
+    public UsernamePasswordAuthenticationToken cold() {
+        return coldProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public UsernamePasswordAuthenticationToken warm() {
+        return warmProvider.validateToken(token);
+    }
+
+}
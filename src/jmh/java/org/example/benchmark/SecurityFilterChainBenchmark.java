@@ -0,0 +1,97 @@
+package org.example.benchmark;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import org.example.Application;
+import org.example.entity.UserRole;
+import org.example.service.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the complete Spring Security filter chain of the application, without the MVC dispatch behind it:
+ * "bearer" is an authorised token request, "anonymous" is rejected by the entry point and "excluded" is an open
+ * path skipping the token filters. Runs on all cores to include contention on the shared caches.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class SecurityFilterChainBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    private ConfigurableApplicationContext context;
+
+    private Filter springSecurityFilterChain;
+
+    private String bearer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(Application.class)
+          .properties("server.port=0", "spring.jpa.show-sql=false", "logging.level.root=WARN",
+            "logging.level.org.example=WARN")
+          .run();
+        springSecurityFilterChain = context.getBean("springSecurityFilterChain", Filter.class);
+        bearer = "Bearer " + context.getBean(JwtTokenProvider.class).generateToken("benchmark", Set.of(UserRole.USER));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int bearer() throws Exception {
+        MockHttpServletRequest request = request("/api/users/benchmark");
+        request.addHeader(HttpHeaders.AUTHORIZATION, bearer);
+        return run(request);
+    }
+
+    @Benchmark
+    public int anonymous() throws Exception {
+        return run(request("/api/users/benchmark"));
+    }
+
+    @Benchmark
+    public int excluded() throws Exception {
+        return run(request("/.well-known/jwks.json"));
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        return request;
+    }
+
+    private int run(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        springSecurityFilterChain.doFilter(request, response, NO_OP_CHAIN);
+        return response.getStatus();
+    }
+
+}
@@ -0,0 +1,46 @@
+package org.example.benchmark;
+
+import org.example.Application;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Boot time of the application context, the fixed cost of every test context and deployment. Each fork starts the
+ * context once in a fresh JVM, so the score is a cold start including class loading, the Hibernate schema creation
+ * and the BCrypt calibration. "test" applies the settings of the shared integration test context.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    @Param({"default", "test"})
+    public String settings;
+
+    @Benchmark
+    public void start() {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(Application.class)
+          .properties("server.port=0", "spring.jpa.show-sql=false", "logging.level.root=WARN",
+            "logging.level.org.example=WARN");
+        if ("test".equals(settings)) {
+            builder.properties("spring.jpa.properties.hibernate.generate_statistics=true",
+              "app.loginRateLimit.enabled=false", "app.password.minStrength=4", "app.password.maxStrength=4");
+        }
+        builder.run().close();
+    }
+
+}
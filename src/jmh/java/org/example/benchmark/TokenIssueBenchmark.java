@@ -0,0 +1,65 @@
+package org.example.benchmark;
+
+import org.example.entity.UserRole;
+import org.example.service.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issuing and cold validation of access tokens per signing algorithm and token format. "validate" runs with the
+ * verified-token cache disabled, so it measures the signature check and the payload decoding of every call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenIssueBenchmark {
+
+    private static final Set<GrantedAuthority> AUTHORITIES = Set.of(UserRole.USER, UserRole.MOD);
+
+    @Param({"HS256", "ES256", "RS256", "EdDSA"})
+    public String signingAlgorithm;
+
+    @Param({"false", "true"})
+    public boolean compactToken;
+
+    private JwtTokenProvider provider;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        provider = BenchmarkSupport.jwtTokenProvider(0, signingAlgorithm, compactToken);
+        token = provider.generateToken("benchmark", AUTHORITIES);
+        if (provider.validateToken(token) == null) {
+            throw new IllegalStateException("Benchmark token does not validate");
+        }
+    }
+
+    @Benchmark
+    public String generate() {
+        return provider.generateToken("benchmark", AUTHORITIES);
+    }
+
+    @Benchmark
+    public UsernamePasswordAuthenticationToken validate() {
+        return provider.validateToken(token);
+    }
+
+}
@@ -0,0 +1,60 @@
+package org.example.benchmark;
+
+import org.example.api.request.CreateUserReq;
+import org.example.converter.UserConverter;
+import org.example.converter.UserConverterImpl;
+import org.example.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link UserConverter#toEntity(CreateUserReq)} as used by registration. With "noop" the mapping itself is
+ * measured, with "bcrypt" the password hash it triggers is included.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserConverterBenchmark {
+
+    @Param({"noop", "bcrypt"})
+    public String encoder;
+
+    private UserConverter userConverter;
+
+    private CreateUserReq request;
+
+    @Setup
+    @SuppressWarnings("deprecation")
+    public void setup() {
+        PasswordEncoder passwordEncoder = "bcrypt".equals(encoder)
+          ? new BCryptPasswordEncoder(10)
+          : NoOpPasswordEncoder.getInstance();
+        userConverter = new UserConverterImpl();
+        BenchmarkSupport.setField(userConverter, "bCryptPasswordEncoder", passwordEncoder);
+        request = new CreateUserReq("benchmark@gmail.com", "benchmark", "benchmark", "benchmark", "Bench", "Mark",
+          "1 Benchmark street", "Ho Chi Minh", "+8412345678");
+    }
+
+    @Benchmark
+    public User toEntity() {
+        return userConverter.toEntity(request);
+    }
+
+}
@@ -0,0 +1,110 @@
+package org.example.benchmark;
+
+import org.example.Application;
+import org.example.api.request.UpdateUserReq;
+import org.example.entity.User;
+import org.example.entity.UserRole;
+import org.example.repository.UserRepository;
+import org.example.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups by username next to profile updates of other users, three reader threads per writer thread. With the
+ * second-level cache an update only evicts the entry of the updated user, so the readers keep hitting the cache;
+ * compare "read" against {@link UserReadBenchmark#entity()} to see what the writes cost them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserMixedWorkloadBenchmark {
+
+    private static final int USERS = 1000;
+
+    @Param({"true", "false"})
+    public boolean secondLevelCache;
+
+    private ConfigurableApplicationContext context;
+
+    private UserRepository userRepository;
+
+    private UserService userService;
+
+    private final List<String> usernames = new ArrayList<>(USERS);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(Application.class)
+          .properties("server.port=0", "spring.jpa.show-sql=false", "logging.level.root=WARN",
+            "logging.level.org.example=WARN")
+          // Default properties rank below application.yml, arguments above it
+          .run("--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache);
+        userRepository = context.getBean(UserRepository.class);
+        userService = context.getBean(UserService.class);
+
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setUsername("mixed" + i);
+            user.setEmail("mixed" + i + "@gmail.com");
+            user.setPassword("{noop}benchmark");
+            user.setFirstName("Mixed");
+            user.setLastName("Workload");
+            user.setCity("Ho Chi Minh");
+            user.setPhone("+8412345678");
+            user.setAuthorities(Set.of(UserRole.USER));
+            users.add(user);
+            usernames.add(user.getUsername());
+        }
+        userRepository.saveAll(users);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public User read() {
+        return userRepository.findByUsername(randomUsername()).orElseThrow();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public int update() {
+        return userService.update(randomUsername(),
+          new UpdateUserReq("Mixed" + ThreadLocalRandom.current().nextInt(), null, null, null, null));
+    }
+
+    private String randomUsername() {
+        return usernames.get(ThreadLocalRandom.current().nextInt(USERS));
+    }
+
+}
@@ -0,0 +1,94 @@
+package org.example.benchmark;
+
+import org.example.Application;
+import org.example.api.response.FindUserResp;
+import org.example.converter.UserConverter;
+import org.example.entity.User;
+import org.example.entity.UserRole;
+import org.example.repository.UserRepository;
+import org.example.service.UserQueryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read path of {@code GET /api/users/{username}} against the in-memory database: "entity" loads the {@code User}
+ * with its roles column and maps it with {@link UserConverter}, "projection" selects the {@link FindUserResp}
+ * columns in a read-only transaction. The entity path loads by natural id and is run with and without the
+ * second-level cache. Run with {@code -prof gc} to compare the allocation per call as well.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserReadBenchmark {
+
+    private static final String USERNAME = "benchmark";
+
+    @Param({"true", "false"})
+    public boolean secondLevelCache;
+
+    private ConfigurableApplicationContext context;
+
+    private UserRepository userRepository;
+
+    private UserConverter userConverter;
+
+    private UserQueryService userQueryService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(Application.class)
+          .properties("server.port=0", "spring.jpa.show-sql=false", "logging.level.root=WARN",
+            "logging.level.org.example=WARN")
+          // Default properties rank below application.yml, arguments above it
+          .run("--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache);
+        userRepository = context.getBean(UserRepository.class);
+        userConverter = context.getBean(UserConverter.class);
+        userQueryService = context.getBean(UserQueryService.class);
+
+        User user = new User();
+        user.setUsername(USERNAME);
+        user.setEmail("benchmark@gmail.com");
+        user.setPassword("{noop}benchmark");
+        user.setFirstName("Bench");
+        user.setLastName("Mark");
+        user.setCity("Ho Chi Minh");
+        user.setPhone("+8412345678");
+        user.setAuthorities(Set.of(UserRole.USER));
+        userRepository.save(user);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public FindUserResp entity() {
+        return userConverter.toDto(userRepository.findByUsername(USERNAME).orElseThrow());
+    }
+
+    @Benchmark
+    public FindUserResp projection() {
+        return userQueryService.find(USERNAME);
+    }
+
+}
@@ -4,6 +4,7 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import org.example.validation.NotBreached;
 
 public record CreateUserReq(
   @NotBlank @Email String email,
@@ -11,7 +12,7 @@ public record CreateUserReq(
   @Pattern(regexp = "^[A-Za-z0-9]+", message = "The username can only contains alphabetical and digit characters")
   String username,
 
-  @NotBlank @Size(min = 5, message = "The password cant be less than 5 characters")
+  @NotBlank @Size(min = 5, message = "The password cant be less than 5 characters") @NotBreached
   String password,
 
   @NotBlank @Size(min = 5, message = "The password cant be less than 5 characters")
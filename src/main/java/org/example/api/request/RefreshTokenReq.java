@@ -0,0 +1,6 @@
+package org.example.api.request;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record RefreshTokenReq(@NotBlank String refreshToken) {
+}
@@ -1,4 +1,20 @@
 package org.example.api.request;
 
-public record UpdateUserReq() {
+import jakarta.validation.constraints.Pattern;
+
+/**
+ * Profile fields to change. A null field keeps the stored value. A present name, city or phone must not be blank,
+ * an empty address clears it.
+ */
+public record UpdateUserReq(
+  @Pattern(regexp = "(?s).*\\S.*", message = "The first name cant be blank") String firstName,
+
+  @Pattern(regexp = "(?s).*\\S.*", message = "The last name cant be blank") String lastName,
+
+  String address,
+
+  @Pattern(regexp = "(?s).*\\S.*", message = "The city cant be blank") String city,
+
+  @Pattern(regexp = "(?s).*\\S.*", message = "The phone cant be blank") String phone
+) {
 }
@@ -1,4 +1,4 @@
 package org.example.api.response;
 
-public record AuthResp(String message, boolean error, String token) {
+public record AuthResp(String message, boolean error, String token, String refreshToken) {
 }
@@ -0,0 +1,7 @@
+package org.example.api.response;
+
+import java.util.List;
+
+public record BatchCreateUserResp(String message, boolean error, int total, int created, int failed,
+                                  long elapsedMillis, double rowsPerSecond, List<BatchCreateUserResult> results) {
+}
@@ -0,0 +1,4 @@
+package org.example.api.response;
+
+public record BatchCreateUserResult(int index, String username, boolean created, String message) {
+}
@@ -0,0 +1,9 @@
+package org.example.api.response;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import org.example.entity.UserRole;
+
+import java.util.Set;
+
+public record UserListItemResp(Long id, @JsonUnwrapped FindUserResp user, Set<UserRole> authorities) {
+}
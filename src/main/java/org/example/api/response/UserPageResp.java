@@ -0,0 +1,10 @@
+package org.example.api.response;
+
+import java.util.List;
+
+/**
+ * @param users       Users ordered by id
+ * @param nextAfterId Cursor for the next page, null on the last page
+ */
+public record UserPageResp(List<UserListItemResp> users, Long nextAfterId) {
+}
@@ -0,0 +1,93 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.example.service.invalidation.InProcessInvalidationBus;
+import org.example.service.invalidation.InvalidationBus;
+import org.example.service.invalidation.NoOpInvalidationBus;
+import org.example.service.invalidation.TcpInvalidationBus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.UUID;
+
+@Configuration
+@Slf4j
+public class InvalidationConfig {
+
+    /**
+     * none, in-process or tcp
+     */
+    @Value("${app.invalidation.transport:none}")
+    private String transport;
+
+    /**
+     * Defaults to a random id per start, so peers notice a restart
+     */
+    @Value("${app.invalidation.nodeId:}")
+    private String nodeId;
+
+    @Value("${app.invalidation.lingerMillis:2}")
+    private long lingerMillis;
+
+    @Value("${app.invalidation.logCapacity:4096}")
+    private int logCapacity;
+
+    @Value("${app.invalidation.group:default}")
+    private String group;
+
+    @Value("${app.invalidation.tcp.host:127.0.0.1}")
+    private String host;
+
+    @Value("${app.invalidation.tcp.port:7701}")
+    private int port;
+
+    /**
+     * Comma separated host:port of the other nodes
+     */
+    @Value("${app.invalidation.tcp.peers:}")
+    private String[] peers;
+
+    @Value("${app.invalidation.tcp.heartbeatMillis:1000}")
+    private int heartbeatMillis;
+
+    @Value("${app.invalidation.tcp.reconnectMillis:500}")
+    private long reconnectMillis;
+
+    /**
+     * Shared by every node, required by the tcp transport
+     */
+    @Value("${app.invalidation.tcp.secret:}")
+    private String secret;
+
+    @Value("${app.invalidation.tcp.maxSubscribers:16}")
+    private int maxSubscribers;
+
+    @Bean
+    public InvalidationBus invalidationBus(MeterRegistry meterRegistry) {
+        String id = StringUtils.isBlank(nodeId) ? UUID.randomUUID().toString() : nodeId;
+        log.debug("Init {} invalidation bus of node {}", transport, id);
+        return switch (transport) {
+            case "none" -> new NoOpInvalidationBus();
+            case "in-process" -> new InProcessInvalidationBus(id, lingerMillis, logCapacity, meterRegistry, group);
+            case "tcp" -> new TcpInvalidationBus(id, lingerMillis, logCapacity, meterRegistry,
+              new InetSocketAddress(host, port),
+              Arrays.stream(peers).filter(StringUtils::isNotBlank).map(InvalidationConfig::address).toList(),
+              heartbeatMillis, reconnectMillis, secret, maxSubscribers);
+            default -> throw new IllegalStateException("Unsupported invalidation transport " + transport);
+        };
+    }
+
+    private static InetSocketAddress address(String peer) {
+        int separator = peer.lastIndexOf(':');
+        if (separator < 0) {
+            throw new IllegalStateException("Invalidation peer " + peer + " is not host:port");
+        }
+        return new InetSocketAddress(peer.substring(0, separator).trim(), Integer.parseInt(peer.substring(separator + 1).trim()));
+    }
+
+}
@@ -1,9 +1,38 @@
 package org.example.config;
 
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.UUID;
+
 @Configuration
 @EnableJpaAuditing
 public class PersistenceConfig {
+
+    /**
+     * Give the second-level cache of this context a cache manager of its own. The default one of the caching
+     * provider is shared by the whole JVM, so contexts side by side, such as cached test contexts, would read each
+     * other's users. Hibernate closes the manager with the session factory.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManager() {
+        return properties -> {
+            if ("false".equalsIgnoreCase(String.valueOf(properties.get(AvailableSettings.USE_SECOND_LEVEL_CACHE)))) {
+                return;
+            }
+            Object providerName = properties.get(ConfigSettings.PROVIDER);
+            CachingProvider provider = providerName == null
+              ? Caching.getCachingProvider() : Caching.getCachingProvider(providerName.toString());
+            properties.put(ConfigSettings.CACHE_MANAGER, provider.getCacheManager(
+              URI.create("hibernate:" + UUID.randomUUID()), provider.getDefaultClassLoader()));
+        };
+    }
+
 }
@@ -0,0 +1,41 @@
+package org.example.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.security.task.DelegatingSecurityContextAsyncTaskExecutor;
+
+/**
+ * Virtual-thread mode, enabled with the {@code virtual} profile on a Java 21+ runtime.
+ * <p>
+ * Tomcat request handling switches to virtual threads through {@code spring.threads.virtual.enabled}. The
+ * {@code SecurityContextHolder} keeps its thread-local strategy, which is what {@code @PreAuthorize} needs since
+ * the check runs on the request thread itself. Work handed off to the application task executor (async MVC
+ * responses) gets the caller's security context copied over. BCrypt keeps running on the platform-thread pool of
+ * the password encoder, so CPU-bound hashing never occupies a carrier thread.
+ */
+@Configuration
+@Profile("virtual")
+@Slf4j
+public class VirtualThreadConfig {
+
+    private static final int VIRTUAL_THREADS_MIN_VERSION = 21;
+
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("app-virtual-");
+        if (Runtime.version().feature() >= VIRTUAL_THREADS_MIN_VERSION) {
+            executor.setVirtualThreads(true);
+            log.debug("Init virtual thread task executor");
+        } else {
+            log.warn("Virtual threads need Java {}+, running on Java {} with platform threads",
+              VIRTUAL_THREADS_MIN_VERSION, Runtime.version().feature());
+        }
+        return new DelegatingSecurityContextAsyncTaskExecutor(executor);
+    }
+
+}
@@ -1,29 +1,34 @@
 package org.example.config.security;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
+import org.example.service.security.PasswordHashingRejectedException;
+import org.example.service.security.StaticJsonResponses;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.util.Map;
 
-import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.example.service.security.StaticJsonResponses.Key.NOT_AUTHENTICATED;
+import static org.example.service.security.StaticJsonResponses.Key.PASSWORD_HASHING_SATURATED;
 
 @Component
 @AllArgsConstructor
 public class CustomAuthenticationEntryPoint implements AuthenticationEntryPoint {
 
-    private final ObjectMapper objectMapper;
+    private final StaticJsonResponses staticJsonResponses;
 
     @Override
     public void commence(HttpServletRequest request, HttpServletResponse response, AuthenticationException authException) throws IOException {
-        response.setContentType(APPLICATION_JSON_VALUE);
-        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-        objectMapper.writeValue(response.getOutputStream(), Map.of("message", "You are not authenticated!"));
+        if (authException instanceof PasswordHashingRejectedException) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            staticJsonResponses.write(PASSWORD_HASHING_SATURATED, response);
+            return;
+        }
+        staticJsonResponses.write(NOT_AUTHENTICATED, response);
     }
 
 }
@@ -0,0 +1,100 @@
+package org.example.config.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.example.config.security.WebSecurityConfig.AUTH_URL;
+import static org.example.controller.JwksController.JWKS_URL;
+
+/**
+ * Paths which are open to everyone and skipped by the token filters.
+ * <p>
+ * The patterns are compiled once. Literal paths and {@code /prefix/**} patterns, which cover everything configured
+ * today, are matched with plain string comparisons and allocate nothing per request. Any other pattern falls back
+ * to a precompiled {@link PathPattern}.
+ * <p>
+ * Requests are matched on their path within the application, the servlet path plus path info, like
+ * {@code AntPathRequestMatcher} does for {@code permitAll}. The container has already removed the context path,
+ * decoded the path and stripped {@code ;} path parameters, and the Spring Security firewall rejects
+ * non-normalized paths such as {@code //api/auth} before any filter runs.
+ */
+@Component
+public class ExcludedPathMatcher implements RequestMatcher {
+
+    static final List<String> EXCLUDED_PATTERNS = List.of(AUTH_URL + "/**", JWKS_URL);
+
+    private static final String ANY_SUFFIX = "/**";
+
+    private final String[] exactPaths;
+
+    private final String[] prefixes;
+
+    private final PathPattern[] patterns;
+
+    public ExcludedPathMatcher() {
+        this(EXCLUDED_PATTERNS);
+    }
+
+    public ExcludedPathMatcher(List<String> excludedPatterns) {
+        List<String> exact = new ArrayList<>();
+        List<String> prefix = new ArrayList<>();
+        List<PathPattern> compiled = new ArrayList<>();
+        for (String pattern : excludedPatterns) {
+            if (isLiteral(pattern)) {
+                exact.add(pattern);
+            } else if (pattern.endsWith(ANY_SUFFIX) && isLiteral(pattern.substring(0, pattern.length() - ANY_SUFFIX.length()))) {
+                prefix.add(pattern.substring(0, pattern.length() - ANY_SUFFIX.length()));
+            } else {
+                compiled.add(PathPatternParser.defaultInstance.parse(pattern));
+            }
+        }
+        this.exactPaths = exact.toArray(String[]::new);
+        this.prefixes = prefix.toArray(String[]::new);
+        this.patterns = compiled.toArray(PathPattern[]::new);
+    }
+
+    @Override
+    public boolean matches(HttpServletRequest request) {
+        return matches(pathWithinApplication(request));
+    }
+
+    public boolean matches(String path) {
+        for (String exactPath : exactPaths) {
+            if (exactPath.equals(path)) {
+                return true;
+            }
+        }
+        for (String prefix : prefixes) {
+            if (path.startsWith(prefix) && (path.length() == prefix.length() || path.charAt(prefix.length()) == '/')) {
+                return true;
+            }
+        }
+        if (patterns.length > 0) {
+            PathContainer pathContainer = PathContainer.parsePath(path);
+            for (PathPattern pattern : patterns) {
+                if (pattern.matches(pathContainer)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    static String pathWithinApplication(HttpServletRequest request) {
+        String servletPath = request.getServletPath();
+        String pathInfo = request.getPathInfo();
+        return pathInfo == null ? servletPath : servletPath + pathInfo;
+    }
+
+    private static boolean isLiteral(String pattern) {
+        return pattern.indexOf('*') < 0 && pattern.indexOf('?') < 0 && pattern.indexOf('{') < 0;
+    }
+
+}
@@ -0,0 +1,53 @@
+package org.example.config.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.service.security.AuthMetrics;
+import org.example.service.security.BCryptCostCalibrator;
+import org.example.service.security.BoundedPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+
+@Configuration
+@Slf4j
+public class PasswordEncoderConfig {
+
+    private static final String BCRYPT_ID = "bcrypt";
+
+    @Value("${app.password.targetHashMillis:250}")
+    private long targetHashMillis;
+
+    @Value("${app.password.minStrength:10}")
+    private int minStrength;
+
+    @Value("${app.password.maxStrength:14}")
+    private int maxStrength;
+
+    @Value("${app.password.threads:0}")
+    private int threads;
+
+    @Value("${app.password.queueCapacity:64}")
+    private int queueCapacity;
+
+    /**
+     * Hashes are written as {@code {bcrypt}<hash>} with a cost calibrated at startup. Hashes stored before the
+     * prefix was introduced are still matched by plain BCrypt and are upgraded on the next successful login.
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(AuthMetrics authMetrics) {
+        log.debug("Init password encoder bean");
+        int strength = BCryptCostCalibrator.calibrate(targetHashMillis, minStrength, maxStrength);
+        DelegatingPasswordEncoder delegatingPasswordEncoder = new DelegatingPasswordEncoder(BCRYPT_ID,
+          Map.of(BCRYPT_ID, new BCryptPasswordEncoder(strength)));
+        delegatingPasswordEncoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder(strength));
+
+        int hashingThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(delegatingPasswordEncoder, hashingThreads, queueCapacity, authMetrics);
+    }
+
+}
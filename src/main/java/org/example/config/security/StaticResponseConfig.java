@@ -0,0 +1,33 @@
+package org.example.config.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.api.response.AuthResp;
+import org.example.service.security.StaticJsonResponses;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+
+import java.util.Map;
+
+import static org.example.service.security.StaticJsonResponses.Key.ACCESS_DENIED;
+import static org.example.service.security.StaticJsonResponses.Key.LOGIN_FAILED;
+import static org.example.service.security.StaticJsonResponses.Key.LOGIN_RATE_LIMITED;
+import static org.example.service.security.StaticJsonResponses.Key.NOT_AUTHENTICATED;
+import static org.example.service.security.StaticJsonResponses.Key.PASSWORD_HASHING_SATURATED;
+
+@Configuration
+public class StaticResponseConfig {
+
+    @Bean
+    public StaticJsonResponses staticJsonResponses(ObjectMapper objectMapper) {
+        return new StaticJsonResponses(objectMapper)
+          .register(NOT_AUTHENTICATED, HttpStatus.UNAUTHORIZED, Map.of("message", "You are not authenticated!"))
+          .register(ACCESS_DENIED, HttpStatus.FORBIDDEN, Map.of("message", "Access denied!"))
+          .register(LOGIN_FAILED, HttpStatus.UNAUTHORIZED, new AuthResp("Bad credentials", true, null, null))
+          .register(LOGIN_RATE_LIMITED, HttpStatus.TOO_MANY_REQUESTS,
+            new AuthResp("Too many login attempts, please retry later", true, null, null))
+          .register(PASSWORD_HASHING_SATURATED, HttpStatus.SERVICE_UNAVAILABLE,
+            new AuthResp("Too many login attempts, please retry", true, null, null));
+    }
+
+}
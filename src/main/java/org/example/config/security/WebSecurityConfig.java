@@ -4,10 +4,16 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.entity.UserRole;
+import org.example.service.security.AuthMetrics;
 import org.example.service.security.CustomAuthenticationFilter;
 import org.example.service.security.DevAuthenticationFilter;
 import org.example.service.security.JwtAuthenticationFilter;
 import org.example.service.security.JwtTokenProvider;
+import org.example.service.security.LoginRateLimiter;
+import org.example.service.security.RefreshTokenService;
+import org.example.service.security.StaticJsonResponses;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -23,12 +29,11 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
-import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
 import java.util.Arrays;
 
@@ -50,24 +55,34 @@ public class WebSecurityConfig {
 
     private final UserDetailsService userDetailsService;
 
+    private final UserDetailsPasswordService userDetailsPasswordService;
+
+    private final PasswordEncoder passwordEncoder;
+
     private final ObjectMapper objectMapper;
 
     private final Environment environment;
 
+    private final ExcludedPathMatcher excludedPathMatcher;
+
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http, AuthenticationManager authenticationManager, JwtAuthenticationFilter jwtAuthenticationFilter, JwtTokenProvider jwtTokenProvider) throws Exception {
-        CustomAuthenticationFilter customAuthenticationFilter = new CustomAuthenticationFilter(authenticationManager, jwtTokenProvider, objectMapper);
+    public SecurityFilterChain filterChain(HttpSecurity http, AuthenticationManager authenticationManager, JwtAuthenticationFilter jwtAuthenticationFilter, JwtTokenProvider jwtTokenProvider,
+                                           RefreshTokenService refreshTokenService, LoginRateLimiter loginRateLimiter,
+                                           StaticJsonResponses staticJsonResponses, AuthMetrics authMetrics) throws Exception {
+        CustomAuthenticationFilter customAuthenticationFilter = new CustomAuthenticationFilter(authenticationManager, jwtTokenProvider,
+          objectMapper, refreshTokenService, loginRateLimiter, staticJsonResponses, authMetrics);
         customAuthenticationFilter.setFilterProcessesUrl(WebSecurityConfig.AUTH_URL);
         log.debug("Set filter process url for custom filter successfully");
 
         http.exceptionHandling(e -> e.authenticationEntryPoint(customAuthenticationEntryPoint)
             .accessDeniedHandler(customAccessDeniedHandler))
           .authorizeHttpRequests((auth) -> auth
-            .requestMatchers(new AntPathRequestMatcher(AUTH_URL + "/**")).permitAll()
-            .requestMatchers(HttpMethod.GET, "/api/users").permitAll()
+            .requestMatchers(excludedPathMatcher).permitAll()
             .requestMatchers(HttpMethod.POST, "/api/users").permitAll()
             .requestMatchers("/api/users/mem").hasAnyAuthority(UserRole.USER.name(), UserRole.MOD.name(), UserRole.ADMIN.name())
             .requestMatchers(PathRequest.toH2Console()).permitAll()
+            .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+            .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole(UserRole.ADMIN.name())
             .anyRequest().authenticated()
           ).sessionManagement(sessionMgmt -> sessionMgmt
             .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
@@ -83,7 +98,7 @@ public class WebSecurityConfig {
         boolean isDevProfile = Arrays.stream(environment.getActiveProfiles()).anyMatch(e -> e.contains("dev"));
         if (isDevProfile) {
             log.debug("Add dev authentication filter");
-            http.addFilterBefore(new DevAuthenticationFilter(authenticationManager()), JwtAuthenticationFilter.class);
+            http.addFilterBefore(new DevAuthenticationFilter(authenticationManager(), excludedPathMatcher), JwtAuthenticationFilter.class);
         }
         return http.build();
     }
@@ -105,15 +120,10 @@ public class WebSecurityConfig {
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
-        authenticationProvider.setPasswordEncoder(passwordEncoder());
+        authenticationProvider.setPasswordEncoder(passwordEncoder);
         authenticationProvider.setUserDetailsService(userDetailsService);
+        authenticationProvider.setUserDetailsPasswordService(userDetailsPasswordService);
         return authenticationProvider;
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        log.debug("Init password encoder bean");
-        return new BCryptPasswordEncoder();
-    }
-
 }
@@ -0,0 +1,69 @@
+package org.example.controller;
+
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.api.request.RefreshTokenReq;
+import org.example.api.response.AuthResp;
+import org.apache.commons.lang3.StringUtils;
+import org.example.service.security.JwtTokenProvider;
+import org.example.service.security.RefreshTokenService;
+import org.example.service.security.TokenPair;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.example.config.security.WebSecurityConfig.AUTH_URL;
+
+@RestController
+@RequestMapping(AUTH_URL)
+@AllArgsConstructor
+@Slf4j
+public class AuthController {
+
+    private final RefreshTokenService refreshTokenService;
+
+    private final JwtTokenProvider jwtTokenProvider;
+
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResp> refresh(@Valid @RequestBody RefreshTokenReq request, BindingResult result) {
+        if (result.hasErrors()) {
+            return ResponseEntity.badRequest().body(new AuthResp("Please check the payload", true, null, null));
+        }
+
+        TokenPair tokens = refreshTokenService.rotate(request.refreshToken());
+        if (tokens == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new AuthResp("Invalid refresh token", true, null, null));
+        }
+        log.debug("Refresh token rotated");
+        return ResponseEntity.ok(new AuthResp("Token refreshed!", false, tokens.accessToken(), tokens.refreshToken()));
+    }
+
+    /**
+     * Revoke the bearer access token and, when given, the family of the refresh token. The auth paths skip the
+     * JWT filter, so the header is read here.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<AuthResp> logout(@RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                           @RequestBody(required = false) RefreshTokenReq request) {
+        if (!StringUtils.startsWith(authorization, "Bearer ")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new AuthResp("Missing access token", true, null, null));
+        }
+        String subject = jwtTokenProvider.revoke(authorization.substring("Bearer ".length()));
+        if (subject == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new AuthResp("Invalid access token", true, null, null));
+        }
+        if (request != null && StringUtils.isNotBlank(request.refreshToken())) {
+            refreshTokenService.revoke(request.refreshToken());
+        }
+        log.debug("User {} logged out", subject);
+        return ResponseEntity.ok(new AuthResp("Logged out!", false, null, null));
+    }
+
+}
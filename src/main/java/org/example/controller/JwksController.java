@@ -0,0 +1,39 @@
+package org.example.controller;
+
+import lombok.AllArgsConstructor;
+import org.example.service.security.SigningKeyRing;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@AllArgsConstructor
+public class JwksController {
+
+    public static final String JWKS_URL = "/.well-known/jwks.json";
+
+    private final SigningKeyRing signingKeyRing;
+
+    /**
+     * Public keys for resource servers verifying tokens locally. The JWK set is serialised once per rotation, and
+     * clients revalidating with If-None-Match get 304 until the next rotation.
+     */
+    @GetMapping(JWKS_URL)
+    public ResponseEntity<byte[]> jwks(WebRequest request) {
+        String etag = signingKeyRing.jwksETag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+          .contentType(MediaType.APPLICATION_JSON)
+          .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+          .eTag(etag)
+          .body(signingKeyRing.jwks());
+    }
+
+}
@@ -1,17 +1,25 @@
 package org.example.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.ValidationException;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.example.api.request.CreateUserReq;
+import org.example.api.response.BatchCreateUserResp;
 import org.example.api.response.CreateUserResp;
 import org.example.api.response.FindUserResp;
+import org.example.api.response.UserPageResp;
 import org.example.converter.UserConverter;
 import org.example.entity.User;
+import org.example.service.RegistrationBatcher;
+import org.example.service.RegistrationUnavailableException;
+import org.example.service.UserImportService;
+import org.example.service.UserQueryService;
 import org.example.service.UserService;
 import org.example.service.security.JwtTokenProvider;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.parameters.P;
@@ -21,7 +29,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/api/users")
@@ -35,9 +47,34 @@ public class UserController {
 
     private final UserConverter userConverter;
 
+    private final UserImportService userImportService;
+
+    private final UserQueryService userQueryService;
+
+    private final RegistrationBatcher registrationBatcher;
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    @PreAuthorize("@roleAccess.hasAnyRole(authentication, 'MOD', 'ADMIN')")
     @GetMapping
-    public String welcome() {
-        return "Welcome to Spring Security";
+    public ResponseEntity<UserPageResp> list(@RequestParam(name = "afterId", defaultValue = "0") long afterId,
+                                             @RequestParam(name = "size", defaultValue = "100") int size) {
+        if (afterId < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(userQueryService.list(afterId, size));
+    }
+
+    @PreAuthorize("@roleAccess.hasAnyRole(authentication, 'MOD', 'ADMIN')")
+    @GetMapping(params = "format=ndjson")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(name = "afterId", defaultValue = "0") long afterId) {
+        if (afterId < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("Export users after id {}", afterId);
+        return ResponseEntity.ok()
+          .contentType(MediaType.APPLICATION_NDJSON)
+          .body(out -> userQueryService.export(afterId, out));
     }
 
     @GetMapping("/mem")
@@ -45,15 +82,15 @@ public class UserController {
         return "A member";
     }
 
-    @PreAuthorize("hasAnyRole('MOD', 'ADMIN') or authentication.getName()==#username")
+    @PreAuthorize("@roleAccess.hasAnyRole(authentication, 'MOD', 'ADMIN') or authentication.getName()==#username")
     @GetMapping("/{username}")
     public ResponseEntity<FindUserResp> getUserByUsername(@PathVariable("username") @P("username") String username) {
         log.debug("Get user by username: {}", username);
-        User user = userService.get(username);
+        FindUserResp user = userQueryService.find(username);
         if (user == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(userConverter.toDto(user));
+        return ResponseEntity.ok(user);
     }
 
     @PostMapping
@@ -67,17 +104,38 @@ public class UserController {
 
         User entity = userConverter.toEntity(request);
         try {
-            User savedEntity = userService.save(entity);
+            User savedEntity = registrationBatcher.save(entity);
             log.debug("Create user {} successfully", savedEntity.getUsername());
 
             String token = jwtTokenProvider.generateToken(savedEntity.getUsername(), savedEntity.getAuthorities());
             log.debug("Generate token for user {} - token {}", savedEntity.getUsername(), token);
 
             return ResponseEntity.status(HttpStatus.CREATED).body(new CreateUserResp("Create user successfully", token));
+        } catch (ValidationException e) {
+            log.error("Error create user: {}", e.getMessage());
+            if (UserService.EMAIL_EXISTS.equals(e.getMessage())) {
+                return ResponseEntity.unprocessableEntity().body(new CreateUserResp("The email already existed", null));
+            }
+        } catch (RegistrationUnavailableException e) {
+            log.error("Error create user: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+              .body(new CreateUserResp("Please try again later", null));
         } catch (Exception e) {
             log.error("Error create user: {}", e.getMessage());
         }
         return ResponseEntity.unprocessableEntity().body(new CreateUserResp("The username already existed", null));
     }
+
+    @PreAuthorize("@roleAccess.hasAnyRole(authentication, 'ADMIN')")
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchCreateUserResp> createBatch(InputStream body) {
+        log.info("Receive batch create user request");
+        BatchCreateUserResp resp = userImportService.importUsers(body);
+        // Rows before a malformed part of the payload are persisted, the per-row report tells the caller which
+        if (resp.error() && resp.created() == 0) {
+            return ResponseEntity.badRequest().body(resp);
+        }
+        return ResponseEntity.ok(resp);
+    }
     
 }
@@ -2,15 +2,21 @@ package org.example.converter;
 
 import org.example.api.request.UpdateUserReq;
 import org.example.entity.User;
+import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.MappingConstants;
 import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
 import org.mapstruct.ReportingPolicy;
 
 @Mapper(componentModel = MappingConstants.ComponentModel.SPRING,
   unmappedTargetPolicy = ReportingPolicy.IGNORE)
 public interface UpdateUserReqConverter {
 
+    /**
+     * Copy the fields present in the request, null fields keep the value of the target.
+     */
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     void setInfo(@MappingTarget User target, UpdateUserReq source);
 
 }
@@ -0,0 +1,38 @@
+package org.example.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Every access token of a subject issued up to {@code revokedAt} is revoked, kept until the last of them expires.
+ */
+@Entity
+@Table(name = "tb_revoked_subjects")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class RevokedSubject {
+
+    @Id
+    private String subject;
+
+    /**
+     * Revocation time in epoch millis.
+     */
+    @Column(name = "revoked_at", nullable = false)
+    private long revokedAt;
+
+    /**
+     * Expiry of the last token issued before the revocation, in epoch millis.
+     */
+    @Column(name = "expires_at", nullable = false)
+    private long expiresAt;
+
+}
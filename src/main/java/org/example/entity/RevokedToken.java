@@ -0,0 +1,33 @@
+package org.example.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * An access token revoked by id, kept until the token expires.
+ */
+@Entity
+@Table(name = "tb_revoked_tokens")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class RevokedToken {
+
+    @Id
+    @Column(name = "token_id")
+    private String tokenId;
+
+    /**
+     * Token expiry in epoch millis.
+     */
+    @Column(name = "expires_at", nullable = false)
+    private long expiresAt;
+
+}
@@ -1,6 +1,7 @@
 package org.example.entity;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
@@ -12,11 +13,17 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -25,34 +32,70 @@ import org.springframework.security.core.userdetails.UserDetails;
 import java.util.Date;
 import java.util.Set;
 
+/**
+ * Users are cached in the second-level region "users" and resolved by username through the natural-id region, so a
+ * repeated lookup by username runs no SQL. Users are updated through
+ * {@link org.example.repository.UserUpdateRepository}, which evicts only the entry of the updated user; a bulk JPQL
+ * update of users would evict the whole region.
+ * <p>
+ * The unique constraints are named, so a violation tells a taken email from a taken username.
+ */
 @Entity
-@Table(name = "tb_users")
-@EntityListeners(AuditingEntityListener.class)
+@Table(name = "tb_users", uniqueConstraints = {
+  @UniqueConstraint(name = User.UK_USERNAME, columnNames = "username"),
+  @UniqueConstraint(name = User.UK_EMAIL, columnNames = "email")
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-natural-id")
+@EntityListeners({AuditingEntityListener.class, UserRolesDualWriteListener.class})
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
 @Setter
 public class User implements UserDetails {
 
+    public static final String UK_USERNAME = "uk_users_username";
+
+    public static final String UK_EMAIL = "uk_users_email";
+
+    /**
+     * Pooled sequence instead of IDENTITY, which would force an immediate insert per entity and disable JDBC
+     * batching. The allocation size should match hibernate.jdbc.batch_size.
+     */
     @Id
-    @GeneratedValue(strategy= GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "tb_users_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
 
-    @Column(nullable = false, unique = true)
+    @NaturalId
+    @Column(nullable = false)
     private String username;
 
     @Column(nullable = false)
     private String password;
 
+    /**
+     * Roles as a {@link UserRole} bitmask in the user row, so loading a user needs no join. Null for rows written
+     * before the column existed until {@link org.example.service.UserRolesBackfill} reaches them.
+     */
+    @Convert(converter = UserRolesConverter.class)
+    @Column(name = "roles")
+    private Set<UserRole> authorities;
+
+    /**
+     * Former storage of the roles, one row per role. Read only for rows not backfilled yet and written on insert
+     * while dual writes are enabled, so the previous version can still be rolled back to.
+     */
     @Enumerated(EnumType.STRING)
-    @ElementCollection(fetch = FetchType.EAGER)
+    @ElementCollection(fetch = FetchType.LAZY)
     @JoinTable(name = "tb_user_authorities",
       joinColumns = @JoinColumn(name = "username", referencedColumnName = "username")
     )
-    private Set<UserRole> authorities;
+    @Column(name = "authorities")
+    private Set<UserRole> legacyAuthorities;
 
     private String firstName;
 
@@ -3,6 +3,15 @@ package org.example.entity;
 import lombok.Getter;
 import org.springframework.security.core.GrantedAuthority;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Roles are encoded as bits derived from the ordinal, so new roles must only ever be appended.
+ */
 @Getter
 public enum UserRole implements GrantedAuthority {
 
@@ -15,4 +24,40 @@ public enum UserRole implements GrantedAuthority {
         return this.name();
     }
 
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    public static int maskOf(Collection<UserRole> roles) {
+        int mask = 0;
+        for (UserRole role : roles) {
+            mask |= role.mask();
+        }
+        return mask;
+    }
+
+    public static Set<UserRole> fromMask(int mask) {
+        Set<UserRole> roles = EnumSet.noneOf(UserRole.class);
+        for (UserRole role : values()) {
+            if ((mask & role.mask()) != 0) {
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
+
+    /**
+     * @return Every role mask sharing at least one role with the given one, for queries which cannot use bitwise
+     * operators
+     */
+    public static List<Integer> masksIntersecting(int mask) {
+        List<Integer> masks = new ArrayList<>();
+        for (int candidate = 1; candidate < 1 << values().length; candidate++) {
+            if ((candidate & mask) != 0) {
+                masks.add(candidate);
+            }
+        }
+        return masks;
+    }
+
 }
@@ -0,0 +1,40 @@
+package org.example.entity;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Where the roles of a user are read from, {@code app.userRoles.storage}:
+ * <ul>
+ *   <li>{@code bitmask}: the roles column of {@code tb_users}, and {@code tb_user_authorities} only for rows not
+ *   backfilled yet.</li>
+ *   <li>{@code collection}: {@code tb_user_authorities} only, as before the bitmask column. New users are always
+ *   written to it then, whatever {@code app.userRoles.dualWrite} says.</li>
+ * </ul>
+ * The roles column is written in both modes, so switching back to {@code bitmask} needs no new backfill.
+ */
+@Component
+public class UserRoleStorage {
+
+    public enum Mode {
+        COLLECTION,
+        BITMASK
+    }
+
+    private final Mode mode;
+
+    public UserRoleStorage(@Value("${app.userRoles.storage:bitmask}") String mode) {
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    public boolean isCollection() {
+        return mode == Mode.COLLECTION;
+    }
+
+}
@@ -0,0 +1,28 @@
+package org.example.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.hibernate.annotations.Immutable;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Maps a role set to its {@link UserRole} bitmask. A null column stays null, it marks a row whose roles are still
+ * only in the legacy authorities table.
+ */
+@Converter
+@Immutable
+public class UserRolesConverter implements AttributeConverter<Set<UserRole>, Integer> {
+
+    @Override
+    public Integer convertToDatabaseColumn(Set<UserRole> roles) {
+        return roles == null ? null : UserRole.maskOf(roles);
+    }
+
+    @Override
+    public Set<UserRole> convertToEntityAttribute(Integer mask) {
+        return mask == null ? null : Collections.unmodifiableSet(UserRole.fromMask(mask));
+    }
+
+}
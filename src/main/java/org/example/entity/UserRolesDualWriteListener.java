@@ -0,0 +1,31 @@
+package org.example.entity;
+
+import jakarta.persistence.PrePersist;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+
+/**
+ * Copies the roles of new users to the legacy authorities table while {@code app.userRoles.dualWrite} is on, or
+ * while the roles are read from that table, see {@link UserRoleStorage}. Roles are only assigned on registration,
+ * so inserts are the only writes to mirror.
+ */
+@Component
+public class UserRolesDualWriteListener {
+
+    private final boolean dualWrite;
+
+    public UserRolesDualWriteListener(UserRoleStorage userRoleStorage,
+                                      @Value("${app.userRoles.dualWrite:true}") boolean dualWrite) {
+        this.dualWrite = dualWrite || userRoleStorage.isCollection();
+    }
+
+    @PrePersist
+    public void copyToLegacyAuthorities(User user) {
+        if (dualWrite && user.getAuthorities() != null) {
+            user.setLegacyAuthorities(new HashSet<>(user.getAuthorities()));
+        }
+    }
+
+}
@@ -0,0 +1,23 @@
+package org.example.repository;
+
+import org.example.entity.RevokedSubject;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface RevokedSubjectRepository extends JpaRepository<RevokedSubject, String> {
+
+    List<RevokedSubject> findByExpiresAtGreaterThan(long now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedSubject s WHERE s.expiresAt <= :now")
+    int deleteExpired(@Param("now") long now);
+
+}
@@ -0,0 +1,22 @@
+package org.example.repository;
+
+import org.example.entity.User;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public interface UserNaturalIdRepository {
+
+    /**
+     * Load a user by its natural id, served from the second-level cache when the user is cached.
+     */
+    @Transactional(readOnly = true)
+    Optional<User> findByUsername(String username);
+
+    /**
+     * Resolve the id of a user by its natural id without loading the user, from the natural-id cache when cached.
+     */
+    @Transactional(readOnly = true)
+    Optional<Long> findIdByUsername(String username);
+
+}
@@ -0,0 +1,34 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.example.entity.User;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+/**
+ * A derived {@code findByUsername} query always hits the database, the query cache aside. Natural-id loading
+ * resolves the id through the natural-id cache and the entity through the entity cache instead.
+ */
+public class UserNaturalIdRepositoryImpl implements UserNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        return entityManager.unwrap(Session.class)
+          .bySimpleNaturalId(User.class)
+          .loadOptional(username);
+    }
+
+    @Override
+    public Optional<Long> findIdByUsername(String username) {
+        return Optional.ofNullable(entityManager.unwrap(Session.class)
+            .bySimpleNaturalId(User.class)
+            .getReference(username))
+          .map(User::getId);
+    }
+
+}
@@ -1,32 +1,53 @@
 package org.example.repository;
 
+import jakarta.persistence.Tuple;
+import org.example.api.response.FindUserResp;
 import org.example.entity.User;
-import org.springframework.data.jpa.repository.Modifying;
+import org.example.entity.UserRole;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
-public interface UserRepository extends CrudRepository<User, Long> {
-    Optional<User> findByUsername(String username);
-
-//    @Transactional
-//    @Modifying
-    @Query("UPDATE User u SET u.firstName = :#{#user.firstName}, u.lastName = :#{#user.lastName}, " +
-      "u.address = :#{#user.address}, u.city= :#{#user.city}, u.phone= :#{#user.phone} WHERE u.username = :#{#user.username}")
-    int updateInfo(@Param("user") User user);
-
-//    @Transactional
-//    @Modifying
-    @Query("UPDATE User u SET u.enabled = true WHERE u.username = :username")
-    int enable(@Param("username") String username);
-
-//    @Transactional
-//    @Modifying
-    @Query("UPDATE User u SET u.enabled = false WHERE u.username = :username")
-    int softDelete(@Param("username") String username);
+public interface UserRepository extends JpaRepository<User, Long>, UserNaturalIdRepository,
+  UserUpdateRepository {
+
+    @Query("SELECT new org.example.api.response.FindUserResp(u.username, u.firstName, u.lastName, u.email, " +
+      "u.address, u.city, u.phone) FROM User u WHERE u.username = :username")
+    Optional<FindUserResp> findViewByUsername(@Param("username") String username);
+
+    /**
+     * Roles of a user whose roles column has not been backfilled yet.
+     */
+    @Query("SELECT a FROM User u JOIN u.legacyAuthorities a WHERE u.username = :username")
+    Set<UserRole> findLegacyAuthorities(@Param("username") String username);
+
+    /**
+     * Keyset page of the listed user columns and roles, without loading entities.
+     */
+    @Query("SELECT u.id AS id, u.username AS username, u.firstName AS firstName, u.lastName AS lastName, " +
+      "u.email AS email, u.address AS address, u.city AS city, u.phone AS phone, u.authorities AS authorities " +
+      "FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Tuple> findPageAfter(@Param("afterId") long afterId, Limit limit);
+
+    @Query("SELECT u.id AS id, a AS authority FROM User u JOIN u.legacyAuthorities a WHERE u.id IN :ids")
+    List<Tuple> findLegacyAuthoritiesByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    Set<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT u.username AS username, u.email AS email FROM User u " +
+      "WHERE u.username IN :usernames OR u.email IN :emails")
+    List<Tuple> findExistingUsernamesOrEmails(@Param("usernames") Collection<String> usernames,
+                                              @Param("emails") Collection<String> emails);
 }
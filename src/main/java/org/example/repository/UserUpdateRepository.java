@@ -0,0 +1,43 @@
+package org.example.repository;
+
+import org.example.entity.User;
+import org.example.entity.UserRole;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Single statement updates of a user by id, which evict only the second-level cache entry of that user.
+ */
+public interface UserUpdateRepository {
+
+    /**
+     * Update the profile fields of the user with the id of the given one. Null fields keep the stored value.
+     */
+    @Transactional
+    int updateInfo(User user);
+
+    @Transactional
+    int enable(long id);
+
+    /**
+     * Disable a user unless it holds one of the protected roles.
+     *
+     * @return 1 if the user was disabled, 0 if it does not exist or holds a protected role
+     */
+    @Transactional
+    int softDelete(long id, Collection<UserRole> protectedRoles);
+
+    /**
+     * Disable a user unless the legacy authorities table gives it one of the protected roles, for the
+     * {@link org.example.entity.UserRoleStorage.Mode#COLLECTION} storage.
+     *
+     * @return 1 if the user was disabled, 0 if it does not exist or holds a protected role
+     */
+    @Transactional
+    int softDeleteByLegacyAuthorities(long id, Collection<UserRole> protectedRoles);
+
+    @Transactional
+    int updatePassword(long id, String password);
+
+}
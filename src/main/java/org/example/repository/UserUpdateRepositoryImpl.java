@@ -0,0 +1,103 @@
+package org.example.repository;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entity.User;
+import org.example.entity.UserRole;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The updates run as plain SQL. Hibernate drops the whole User region of the second-level cache, natural ids
+ * included, for any bulk JPQL or native statement on the entity; these statements bypass the cache and evict the
+ * entry of the updated user only, once right away and once more after commit, as a concurrent load may put the row
+ * back as it was before the uncommitted change.
+ */
+public class UserUpdateRepositoryImpl implements UserUpdateRepository {
+
+    private static final String PROTECTED_LEGACY_AUTHORITY = "EXISTS (SELECT 1 FROM tb_user_authorities a " +
+      "WHERE a.username = tb_users.username AND a.authorities IN (:protectedRoles))";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public int updateInfo(User user) {
+        return update(user.getId(), "UPDATE tb_users SET first_name = COALESCE(:firstName, first_name), " +
+            "last_name = COALESCE(:lastName, last_name), address = COALESCE(:address, address), " +
+            "city = COALESCE(:city, city), phone = COALESCE(:phone, phone), updated_at = CURRENT_TIMESTAMP " +
+            "WHERE id = :id",
+          new MapSqlParameterSource("id", user.getId())
+            .addValue("firstName", user.getFirstName())
+            .addValue("lastName", user.getLastName())
+            .addValue("address", user.getAddress())
+            .addValue("city", user.getCity())
+            .addValue("phone", user.getPhone()));
+    }
+
+    @Override
+    public int enable(long id) {
+        return update(id, "UPDATE tb_users SET enabled = TRUE, updated_at = CURRENT_TIMESTAMP WHERE id = :id",
+          new MapSqlParameterSource("id", id));
+    }
+
+    /**
+     * The role masks holding a protected role are enumerated, as not every database has a bitwise and. Rows which
+     * are not backfilled yet are checked against the legacy authorities table.
+     */
+    @Override
+    public int softDelete(long id, Collection<UserRole> protectedRoles) {
+        return update(id, "UPDATE tb_users SET enabled = FALSE, updated_at = CURRENT_TIMESTAMP WHERE id = :id AND (" +
+            "(roles IS NOT NULL AND roles NOT IN (:protectedMasks)) OR (roles IS NULL AND NOT " +
+            PROTECTED_LEGACY_AUTHORITY + "))",
+          new MapSqlParameterSource("id", id)
+            .addValue("protectedMasks", UserRole.masksIntersecting(UserRole.maskOf(protectedRoles)))
+            .addValue("protectedRoles", names(protectedRoles)));
+    }
+
+    @Override
+    public int softDeleteByLegacyAuthorities(long id, Collection<UserRole> protectedRoles) {
+        return update(id, "UPDATE tb_users SET enabled = FALSE, updated_at = CURRENT_TIMESTAMP WHERE id = :id " +
+            "AND NOT " + PROTECTED_LEGACY_AUTHORITY,
+          new MapSqlParameterSource("id", id)
+            .addValue("protectedRoles", names(protectedRoles)));
+    }
+
+    @Override
+    public int updatePassword(long id, String password) {
+        return update(id, "UPDATE tb_users SET password = :password, updated_at = CURRENT_TIMESTAMP WHERE id = :id",
+          new MapSqlParameterSource("id", id)
+            .addValue("password", password));
+    }
+
+    private int update(long id, String sql, MapSqlParameterSource parameters) {
+        int updated = jdbcTemplate.update(sql, parameters);
+        if (updated > 0) {
+            Cache secondLevelCache = entityManagerFactory.getCache();
+            secondLevelCache.evict(User.class, id);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        secondLevelCache.evict(User.class, id);
+                    }
+                });
+            }
+        }
+        return updated;
+    }
+
+    private static List<String> names(Collection<UserRole> roles) {
+        return roles.stream().map(UserRole::name).toList();
+    }
+
+}
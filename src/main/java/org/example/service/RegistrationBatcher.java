@@ -0,0 +1,257 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.Tuple;
+import jakarta.validation.ValidationException;
+import lombok.extern.slf4j.Slf4j;
+import org.example.entity.User;
+import org.example.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Group commit of registrations. Opt-in with {@code app.registration.groupCommit.enabled}, otherwise every
+ * registration is saved in its own transaction by {@link UserService#save(User)}.
+ * <p>
+ * Request threads hash the password themselves, then queue the entity and wait. A single committer thread takes
+ * what is queued, waits up to {@code maxWaitMillis} for more registrations until {@code maxBatchSize}, and saves the
+ * batch with one existence query over usernames and emails and one batched insert in one transaction. Each caller
+ * gets the outcome of its own registration, the same as from {@link UserService#save(User)}. While a batch commits
+ * the next one fills up, so batches grow with the load; a lone registration waits at most {@code maxWaitMillis}.
+ * <p>
+ * A registration finding the queue full takes the direct path. If the batch insert still hits a unique constraint,
+ * e.g. from a registration on another node, the batch is retried one by one.
+ * <p>
+ * A caller waits at most {@code maxWaitMillis} plus {@code commitTimeoutMillis}. A registration still queued by then,
+ * or queued while the pipeline stops, is taken back and saved directly; one whose batch is committing or was
+ * dropped by the stopping committer fails with {@link RegistrationUnavailableException}.
+ */
+@Component
+@Slf4j
+public class RegistrationBatcher {
+
+    private final UserService userService;
+
+    private final UserRepository userRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+
+    private final int maxBatchSize;
+
+    private final long maxWaitNanos;
+
+    private final long commitTimeoutNanos;
+
+    private final BlockingQueue<PendingRegistration> queue;
+
+    private final DistributionSummary batchSizes;
+
+    private final Thread committer;
+
+    private volatile boolean running;
+
+    public RegistrationBatcher(UserService userService, UserRepository userRepository,
+                               PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                               @Value("${app.registration.groupCommit.enabled:false}") boolean enabled,
+                               @Value("${app.registration.groupCommit.maxBatchSize:32}") int maxBatchSize,
+                               @Value("${app.registration.groupCommit.maxWaitMillis:2}") long maxWaitMillis,
+                               @Value("${app.registration.groupCommit.queueCapacity:1024}") int queueCapacity,
+                               @Value("${app.registration.groupCommit.commitTimeoutMillis:5000}")
+                               long commitTimeoutMillis) {
+        this.userService = userService;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMillis));
+        this.commitTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, commitTimeoutMillis));
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.batchSizes = DistributionSummary.builder("registration.batch.size")
+          .description("Registrations saved per group commit")
+          .register(meterRegistry);
+        if (enabled) {
+            running = true;
+            committer = new CustomizableThreadFactory("registration-committer-").newThread(this::commitLoop);
+            committer.setDaemon(true);
+            committer.start();
+            log.debug("Init registration group commit with batches of up to {} within {} ms", this.maxBatchSize,
+              maxWaitMillis);
+        } else {
+            committer = null;
+        }
+    }
+
+    /**
+     * Save a new user, grouped with concurrent registrations when enabled.
+     *
+     * @param user User with the password already encoded
+     * @return Saved user
+     * @throws ValidationException if the username or email exists
+     * @throws RegistrationUnavailableException if the group commit stopped or timed out
+     */
+    public User save(User user) {
+        if (!enabled) {
+            return userService.save(user);
+        }
+        PendingRegistration pending = new PendingRegistration(user, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            log.debug("Registration queue full or stopped, save user {} directly", user.getUsername());
+            return userService.save(user);
+        }
+        if (!running && queue.remove(pending)) {
+            // Stopped meanwhile, the committer may have drained the queue for the last time before the offer
+            log.debug("Registration pipeline stopped, save user {} directly", user.getUsername());
+            return userService.save(user);
+        }
+        try {
+            return pending.result().get(maxWaitNanos + commitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Group commit of user " + user.getUsername() + " failed", e.getCause());
+        } catch (TimeoutException e) {
+            if (queue.remove(pending)) {
+                log.warn("Registration of user {} was not committed in time, save it directly", user.getUsername());
+                return userService.save(user);
+            }
+            log.error("Group commit of user {} timed out", user.getUsername());
+            throw new RegistrationUnavailableException("Registration commit timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queue.remove(pending);
+            throw new RegistrationUnavailableException("Interrupted while waiting for the registration commit");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (committer != null) {
+            committer.interrupt();
+        }
+    }
+
+    private void commitLoop() {
+        List<PendingRegistration> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (running) {
+                PendingRegistration first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    PendingRegistration next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                }
+                commit(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            queue.drainTo(batch);
+            RegistrationUnavailableException stopped =
+              new RegistrationUnavailableException("Registration pipeline stopped");
+            batch.forEach(pending -> pending.result().completeExceptionally(stopped));
+        }
+    }
+
+    private void commit(List<PendingRegistration> batch) {
+        batchSizes.record(batch.size());
+        try {
+            List<PendingRegistration> accepted = rejectExisting(batch);
+            if (accepted.isEmpty()) {
+                return;
+            }
+            List<User> entities = accepted.stream().map(PendingRegistration::user).toList();
+            try {
+                transactionTemplate.executeWithoutResult(status -> userRepository.saveAllAndFlush(entities));
+                accepted.forEach(pending -> pending.result().complete(pending.user()));
+                log.debug("Group commit of {} registrations, {} saved", batch.size(), accepted.size());
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Group commit of {} registrations failed, retry one by one: {}", accepted.size(), e.getMessage());
+                saveOneByOne(accepted);
+            }
+        } catch (RuntimeException e) {
+            log.error("Group commit of {} registrations failed", batch.size(), e);
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Complete the registrations whose username or email exists, or is taken by an earlier registration of the
+     * batch, with the error of {@link UserService#save(User)}.
+     *
+     * @return Remaining registrations
+     */
+    private List<PendingRegistration> rejectExisting(List<PendingRegistration> batch) {
+        List<String> usernames = batch.stream().map(pending -> pending.user().getUsername()).toList();
+        List<String> emails = batch.stream().map(pending -> pending.user().getEmail()).toList();
+        Set<String> takenUsernames = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        for (Tuple existing : userRepository.findExistingUsernamesOrEmails(usernames, emails)) {
+            takenUsernames.add(existing.get("username", String.class));
+            takenEmails.add(existing.get("email", String.class));
+        }
+
+        List<PendingRegistration> accepted = new ArrayList<>(batch.size());
+        for (PendingRegistration pending : batch) {
+            User user = pending.user();
+            if (takenUsernames.contains(user.getUsername())) {
+                pending.result().completeExceptionally(new ValidationException(UserService.USERNAME_EXISTS));
+            } else if (takenEmails.contains(user.getEmail())) {
+                pending.result().completeExceptionally(new ValidationException(UserService.EMAIL_EXISTS));
+            } else {
+                takenUsernames.add(user.getUsername());
+                takenEmails.add(user.getEmail());
+                accepted.add(pending);
+            }
+        }
+        return accepted;
+    }
+
+    private void saveOneByOne(List<PendingRegistration> accepted) {
+        for (PendingRegistration pending : accepted) {
+            User user = pending.user();
+            // Reset what the rolled back batch insert assigned
+            user.setId(null);
+            user.setAuthorities(new HashSet<>(user.getAuthorities()));
+            try {
+                pending.result().complete(userService.save(user));
+            } catch (RuntimeException e) {
+                pending.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    private record PendingRegistration(User user, CompletableFuture<User> result) {
+    }
+
+}
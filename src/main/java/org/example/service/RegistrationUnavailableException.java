@@ -0,0 +1,13 @@
+package org.example.service;
+
+/**
+ * Thrown when the group commit of a registration did not complete: the pipeline stopped, or the batch holding the
+ * registration did not commit in time. In the latter case the user may still have been saved.
+ */
+public class RegistrationUnavailableException extends IllegalStateException {
+
+    public RegistrationUnavailableException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,90 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.example.service.invalidation.Invalidation;
+import org.example.service.invalidation.InvalidationBus;
+import org.example.service.security.AuthMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of {@link UserDetails} snapshots used on the login path.
+ * <p>
+ * The authentication manager erases the credentials of the principal it returns, so the cache hands out a copy
+ * of the snapshot instead of the cached instance.
+ * <p>
+ * Entries expire {@code app.userCache.ttlSeconds} after they were loaded. Writes through the application evict
+ * explicitly; the expiry bounds how long a missed eviction, e.g. a direct database change, serves a stale
+ * {@code enabled} flag or stale authorities.
+ */
+@Component
+@Slf4j
+public class UserDetailsCache {
+
+    private final Cache<String, UserDetails> cache;
+
+    private final InvalidationBus invalidationBus;
+
+    public UserDetailsCache(@Value("${app.userCache.maxSize:10000}") long maxSize,
+                            @Value("${app.userCache.ttlSeconds:300}") long ttlSeconds, AuthMetrics authMetrics,
+                            InvalidationBus invalidationBus) {
+        this.cache = Caffeine.newBuilder()
+          .maximumSize(maxSize)
+          .expireAfterWrite(Duration.ofSeconds(Math.max(1, ttlSeconds)))
+          .recordStats()
+          .build();
+        authMetrics.monitor(cache, "userDetails");
+        this.invalidationBus = invalidationBus;
+        log.debug("Init user details cache with max size {} and ttl {} s", maxSize, ttlSeconds);
+    }
+
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        UserDetails cached = cache.get(username, loader);
+        return User.withUserDetails(cached).build();
+    }
+
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Evict now and, inside a transaction, once more after commit. A login between the two would otherwise cache
+     * the row as it was before the uncommitted change. The other nodes are told once the change is committed, so
+     * they cannot reload the old row either.
+     *
+     * @param userId Id of the user, for the other nodes to evict its second-level cache entry
+     */
+    public void evictAfterCommit(String username, long userId) {
+        cache.invalidate(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(username);
+                    invalidationBus.publish(Invalidation.user(username, userId));
+                }
+            });
+        } else {
+            invalidationBus.publish(Invalidation.user(username, userId));
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+}
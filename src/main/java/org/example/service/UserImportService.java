@@ -0,0 +1,21 @@
+package org.example.service;
+
+import jakarta.validation.constraints.NotNull;
+import org.example.api.response.BatchCreateUserResp;
+
+import java.io.InputStream;
+
+public interface UserImportService {
+
+    /**
+     * Create users from a JSON array of {@link org.example.api.request.CreateUserReq}, read as a stream.
+     * Rows are validated one by one and inserted in batches, so a failure only affects its own row. A payload which
+     * turns malformed midway keeps the rows read before the error: they are inserted and reported per row, and the
+     * response carries the error with the row it occurred at.
+     *
+     * @param json JSON array
+     * @return Result per row and throughput of the import
+     */
+    BatchCreateUserResp importUsers(@NotNull InputStream json);
+
+}
@@ -0,0 +1,265 @@
+package org.example.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.example.api.request.CreateUserReq;
+import org.example.api.response.BatchCreateUserResp;
+import org.example.api.response.BatchCreateUserResult;
+import org.example.converter.UserConverter;
+import org.example.entity.User;
+import org.example.repository.UserRepository;
+import org.example.service.security.PasswordHashingRejectedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Streams the payload with the Jackson parser, so only the current chunk of {@code batchSize} rows is held as
+ * entities. Each chunk costs two existence queries and one {@code saveAll}, which Hibernate sends as JDBC batches
+ * thanks to the pooled sequence id of {@link User}. Passwords of a chunk are hashed in parallel; the hashing itself
+ * still goes through the bounded password encoder. Imports together keep at most
+ * {@code app.userImport.maxHashesInFlight} hashes in it, below its queue capacity, so an import cannot starve logins
+ * of hashing capacity.
+ */
+@Service
+@Slf4j
+public class UserImportServiceImpl implements UserImportService {
+
+    private final UserRepository userRepository;
+
+    private final UserConverter userConverter;
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final int batchSize;
+
+    private final ThreadPoolExecutor hashExecutor;
+
+    /**
+     * Hashes submitted by every import and not finished yet. Its permits also bound the queue of the executor.
+     */
+    private final Semaphore hashPermits;
+
+    public UserImportServiceImpl(UserRepository userRepository, UserConverter userConverter, ObjectMapper objectMapper,
+                                 Validator validator,
+                                 @Value("${app.userImport.batchSize:${spring.jpa.properties.hibernate.jdbc.batch_size:50}}") int batchSize,
+                                 @Value("${app.userImport.hashThreads:0}") int hashThreads,
+                                 @Value("${app.userImport.maxHashesInFlight:0}") int maxHashesInFlight,
+                                 @Value("${app.password.queueCapacity:64}") int passwordQueueCapacity) {
+        this.userRepository = userRepository;
+        this.userConverter = userConverter;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.batchSize = Math.max(1, batchSize);
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        // Half of the encoder queue unless configured, never all of it
+        int permits = Math.max(1, maxHashesInFlight > 0
+          ? Math.min(maxHashesInFlight, passwordQueueCapacity - 1) : passwordQueueCapacity / 2);
+        this.hashPermits = new Semaphore(permits);
+        this.hashExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+          new ArrayBlockingQueue<>(permits), new CustomizableThreadFactory("user-import-"));
+        log.debug("Init user import with batch size {}, {} hashing threads and at most {} hashes in flight",
+          this.batchSize, threads, permits);
+    }
+
+    @Override
+    public BatchCreateUserResp importUsers(InputStream json) {
+        long start = System.nanoTime();
+        List<BatchCreateUserResult> results = new ArrayList<>();
+        Set<String> seenUsernames = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+        List<PendingUser> chunk = new ArrayList<>(batchSize);
+        String error = null;
+        int index = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                error = "The payload must be a JSON array";
+            } else {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    CreateUserReq request = objectMapper.readValue(parser, CreateUserReq.class);
+                    String invalid = validate(request, seenUsernames, seenEmails);
+                    if (invalid != null) {
+                        results.add(new BatchCreateUserResult(index, request.username(), false, invalid));
+                    } else {
+                        chunk.add(new PendingUser(index, request));
+                        if (chunk.size() == batchSize) {
+                            insert(chunk, results);
+                            chunk.clear();
+                        }
+                    }
+                    index++;
+                }
+                if (parser.currentToken() != JsonToken.END_ARRAY) {
+                    error = String.format("Unexpected content at row %d", index);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Error reading user import payload at row {}: {}", index, e.getMessage());
+            error = String.format("Malformed payload at row %d", index);
+        }
+        if (!chunk.isEmpty()) {
+            insert(chunk, results);
+        }
+
+        results.sort(Comparator.comparingInt(BatchCreateUserResult::index));
+        int created = (int) results.stream().filter(BatchCreateUserResult::created).count();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        double rowsPerSecond = results.size() * 1000.0 / Math.max(1, elapsedMillis);
+        log.info("Imported {} of {} users in {} ms ({} rows/s)", created, results.size(), elapsedMillis,
+          String.format("%.1f", rowsPerSecond));
+
+        String message = error != null ? error : String.format("Created %d of %d users", created, results.size());
+        return new BatchCreateUserResp(message, error != null, results.size(), created, results.size() - created,
+          elapsedMillis, rowsPerSecond, results);
+    }
+
+    private String validate(CreateUserReq request, Set<String> seenUsernames, Set<String> seenEmails) {
+        Set<ConstraintViolation<CreateUserReq>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+              .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+              .sorted()
+              .collect(Collectors.joining(", "));
+        }
+        if (!StringUtils.equals(request.password(), request.rePassword())) {
+            return "Please check submitted password";
+        }
+        if (!seenUsernames.add(request.username())) {
+            return "Duplicate username in payload";
+        }
+        if (!seenEmails.add(request.email())) {
+            return "Duplicate email in payload";
+        }
+        return null;
+    }
+
+    private void insert(List<PendingUser> chunk, List<BatchCreateUserResult> results) {
+        Set<String> existingUsernames = userRepository.findExistingUsernames(
+          chunk.stream().map(p -> p.request().username()).toList());
+        Set<String> existingEmails = userRepository.findExistingEmails(
+          chunk.stream().map(p -> p.request().email()).toList());
+
+        List<PendingUser> accepted = new ArrayList<>(chunk.size());
+        List<Future<User>> hashed = new ArrayList<>(chunk.size());
+        for (PendingUser pending : chunk) {
+            CreateUserReq request = pending.request();
+            if (existingUsernames.contains(request.username())) {
+                results.add(new BatchCreateUserResult(pending.index(), request.username(), false, "The username already existed"));
+            } else if (existingEmails.contains(request.email())) {
+                results.add(new BatchCreateUserResult(pending.index(), request.username(), false, "The email already existed"));
+            } else {
+                try {
+                    hashed.add(submitHash(request));
+                    accepted.add(pending);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    results.add(new BatchCreateUserResult(pending.index(), request.username(), false, "Import interrupted"));
+                }
+            }
+        }
+
+        List<PendingUser> converted = new ArrayList<>(accepted.size());
+        List<User> entities = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            PendingUser pending = accepted.get(i);
+            try {
+                entities.add(hashed.get(i).get());
+                converted.add(pending);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.add(new BatchCreateUserResult(pending.index(), pending.request().username(), false, "Import interrupted"));
+            } catch (ExecutionException e) {
+                String message = e.getCause() instanceof PasswordHashingRejectedException
+                  ? "Too many password hashing requests, please retry" : "Error creating user";
+                log.warn("Error hashing password for user {}: {}", pending.request().username(), e.getCause().getMessage());
+                results.add(new BatchCreateUserResult(pending.index(), pending.request().username(), false, message));
+            }
+        }
+        if (entities.isEmpty()) {
+            return;
+        }
+
+        try {
+            userRepository.saveAll(entities);
+            for (PendingUser pending : converted) {
+                results.add(new BatchCreateUserResult(pending.index(), pending.request().username(), true, "Create user successfully"));
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Batch insert failed, retry {} users one by one: {}", entities.size(), e.getMessage());
+            insertOneByOne(converted, entities, results);
+        }
+    }
+
+    /**
+     * Wait until fewer than the allowed hashes are in flight, then hash on the import pool.
+     */
+    private Future<User> submitHash(CreateUserReq request) throws InterruptedException {
+        hashPermits.acquire();
+        try {
+            return hashExecutor.submit(() -> {
+                try {
+                    return userConverter.toEntity(request);
+                } finally {
+                    hashPermits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            hashPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Fallback when a concurrent registration took one of the usernames between the existence check and the
+     * batch insert.
+     */
+    private void insertOneByOne(List<PendingUser> converted, List<User> entities, List<BatchCreateUserResult> results) {
+        for (int i = 0; i < entities.size(); i++) {
+            PendingUser pending = converted.get(i);
+            User entity = entities.get(i);
+            entity.setId(null);
+            entity.setAuthorities(new HashSet<>(entity.getAuthorities()));
+            try {
+                userRepository.save(entity);
+                results.add(new BatchCreateUserResult(pending.index(), pending.request().username(), true, "Create user successfully"));
+            } catch (DataIntegrityViolationException e) {
+                results.add(new BatchCreateUserResult(pending.index(), pending.request().username(), false, "The username already existed"));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashExecutor.shutdown();
+    }
+
+    private record PendingUser(int index, CreateUserReq request) {
+    }
+
+}
@@ -0,0 +1,34 @@
+package org.example.service;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.NotBlank;
+import org.example.api.response.FindUserResp;
+import org.example.api.response.UserPageResp;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface UserQueryService {
+
+    /**
+     * @param username Username
+     * @return Public profile of the user or null if the user does not exist
+     */
+    FindUserResp find(@NotBlank String username);
+
+    /**
+     * @param afterId Exclusive id cursor, 0 for the first page
+     * @param size    Page size
+     * @return Page of users ordered by id
+     */
+    UserPageResp list(long afterId, int size);
+
+    /**
+     * Write every user after the cursor as newline-delimited JSON, one page in memory at a time.
+     *
+     * @param afterId Exclusive id cursor, 0 to start from the first user
+     * @param out     Response stream
+     */
+    void export(long afterId, @NotNull OutputStream out) throws IOException;
+
+}
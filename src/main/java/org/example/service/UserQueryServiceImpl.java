@@ -0,0 +1,161 @@
+package org.example.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.Tuple;
+import lombok.extern.slf4j.Slf4j;
+import org.example.api.response.FindUserResp;
+import org.example.api.response.UserListItemResp;
+import org.example.api.response.UserPageResp;
+import org.example.entity.UserRole;
+import org.example.entity.UserRoleStorage;
+import org.example.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keyset pagination on id: every page is an index range scan, however deep the cursor. Roles come with the user
+ * row; only users not backfilled yet, or every user with the {@code collection} {@link UserRoleStorage}, have theirs
+ * loaded from the legacy table, with one IN query per page.
+ * <p>
+ * Reads select DTO columns only, so nothing enters the persistence context and there is nothing to dirty check.
+ */
+@Service
+@Slf4j
+public class UserQueryServiceImpl implements UserQueryService {
+
+    private final UserRepository userRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final UserRoleStorage userRoleStorage;
+
+    private final int exportPageSize;
+
+    public UserQueryServiceImpl(UserRepository userRepository, ObjectMapper objectMapper,
+                                UserRoleStorage userRoleStorage,
+                                @Value("${app.userList.exportPageSize:1000}") int exportPageSize) {
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.userRoleStorage = userRoleStorage;
+        this.exportPageSize = Math.max(1, exportPageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public FindUserResp find(String username) {
+        return userRepository.findViewByUsername(username).orElse(null);
+    }
+
+    @Override
+    public UserPageResp list(long afterId, int size) {
+        List<UserListItemResp> users = findPage(afterId, size);
+        Long nextAfterId = users.size() < size ? null : users.get(users.size() - 1).id();
+        return new UserPageResp(users, nextAfterId);
+    }
+
+    @Override
+    public void export(long afterId, OutputStream out) throws IOException {
+        long cursor = afterId;
+        int exported = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            // Rows are separated by the newline written after each of them
+            generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            List<UserListItemResp> page;
+            do {
+                page = findPage(cursor, exportPageSize);
+                for (UserListItemResp user : page) {
+                    writeUser(generator, user);
+                }
+                generator.flush();
+                exported += page.size();
+                if (!page.isEmpty()) {
+                    cursor = page.get(page.size() - 1).id();
+                }
+            } while (page.size() == exportPageSize);
+        }
+        log.debug("Exported {} users after id {}", exported, afterId);
+    }
+
+    private List<UserListItemResp> findPage(long afterId, int size) {
+        List<Tuple> rows = userRepository.findPageAfter(afterId, Limit.of(size));
+        if (rows.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        boolean collection = userRoleStorage.isCollection();
+        List<Long> legacyIds = new ArrayList<>();
+        for (Tuple row : rows) {
+            if (collection || row.get("authorities") == null) {
+                legacyIds.add(row.get("id", Long.class));
+            }
+        }
+        Map<Long, Set<UserRole>> legacyAuthorities = legacyIds.isEmpty()
+          ? Collections.emptyMap() : findLegacyAuthorities(legacyIds);
+
+        List<UserListItemResp> users = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Long id = row.get("id", Long.class);
+            FindUserResp user = new FindUserResp(row.get("username", String.class), row.get("firstName", String.class),
+              row.get("lastName", String.class), row.get("email", String.class), row.get("address", String.class),
+              row.get("city", String.class), row.get("phone", String.class));
+            @SuppressWarnings("unchecked")
+            Set<UserRole> authorities = collection ? null : (Set<UserRole>) row.get("authorities");
+            if (authorities == null) {
+                authorities = legacyAuthorities.getOrDefault(id, Collections.emptySet());
+            }
+            users.add(new UserListItemResp(id, user, authorities));
+        }
+        return users;
+    }
+
+    private Map<Long, Set<UserRole>> findLegacyAuthorities(List<Long> ids) {
+        Map<Long, Set<UserRole>> authorities = new HashMap<>(ids.size() * 2);
+        for (Tuple row : userRepository.findLegacyAuthoritiesByIds(ids)) {
+            authorities.computeIfAbsent(row.get("id", Long.class), id -> EnumSet.noneOf(UserRole.class))
+              .add(row.get("authority", UserRole.class));
+        }
+        return authorities;
+    }
+
+    private static void writeUser(JsonGenerator generator, UserListItemResp item) throws IOException {
+        FindUserResp user = item.user();
+        generator.writeStartObject();
+        generator.writeNumberField("id", item.id());
+        writeStringField(generator, "username", user.username());
+        writeStringField(generator, "firstName", user.firstName());
+        writeStringField(generator, "lastName", user.lastName());
+        writeStringField(generator, "email", user.email());
+        writeStringField(generator, "address", user.address());
+        writeStringField(generator, "city", user.city());
+        writeStringField(generator, "phone", user.phone());
+        generator.writeArrayFieldStart("authorities");
+        for (UserRole role : item.authorities()) {
+            generator.writeString(role.name());
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private static void writeStringField(JsonGenerator generator, String name, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value);
+        }
+    }
+
+}
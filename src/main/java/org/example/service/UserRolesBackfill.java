@@ -0,0 +1,97 @@
+package org.example.service;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.example.entity.User;
+import org.example.entity.UserRole;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Online migration of the roles into the bitmask column of {@code tb_users}. Users without the column are
+ * backfilled from {@code tb_user_authorities} in small id ranges, one short transaction per range, while the
+ * application keeps serving: until a row is reached, reads fall back to the legacy table.
+ * <p>
+ * Once every row is backfilled and dual writes are off, {@code tb_user_authorities} can be dropped.
+ */
+@Component
+@Slf4j
+public class UserRolesBackfill {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final boolean enabled;
+
+    private final int batchSize;
+
+    private final String backfillSql;
+
+    private volatile boolean done;
+
+    public UserRolesBackfill(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             EntityManagerFactory entityManagerFactory,
+                             @Value("${app.userRoles.backfill.enabled:true}") boolean enabled,
+                             @Value("${app.userRoles.backfill.batchSize:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.backfillSql = backfillSql();
+    }
+
+    @Scheduled(fixedDelayString = "${app.userRoles.backfill.delayMillis:1000}",
+      initialDelayString = "${app.userRoles.backfill.delayMillis:1000}")
+    public void backfillScheduled() {
+        if (!enabled || done) {
+            return;
+        }
+        if (backfillNextBatch() == 0) {
+            done = true;
+            log.info("User roles backfill complete");
+        }
+    }
+
+    /**
+     * @return Number of users in the backfilled id range, 0 once every user has the roles column set
+     */
+    public int backfillNextBatch() {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM tb_users WHERE roles IS NULL ORDER BY id LIMIT ?",
+          Long.class, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Integer updated = transactionTemplate.execute(status ->
+          jdbcTemplate.update(backfillSql, ids.get(0), ids.get(ids.size() - 1)));
+        // Plain JDBC bypasses the second-level cache, which may still hold these users without roles
+        Cache secondLevelCache = entityManagerFactory.getCache();
+        ids.forEach(id -> secondLevelCache.evict(User.class, id));
+        log.debug("Backfill roles of {} users with ids {} to {}", updated, ids.get(0), ids.get(ids.size() - 1));
+        return ids.size();
+    }
+
+    /**
+     * The legacy rows of a user hold each role once, so their sum of role bits is the mask.
+     */
+    private static String backfillSql() {
+        StringBuilder mask = new StringBuilder("CASE a.authorities");
+        for (UserRole role : UserRole.values()) {
+            mask.append(" WHEN '").append(role.name()).append("' THEN ").append(role.mask());
+        }
+        mask.append(" ELSE 0 END");
+        return "UPDATE tb_users SET roles = COALESCE((SELECT SUM(" + mask + ") FROM tb_user_authorities a " +
+          "WHERE a.username = tb_users.username), 0) WHERE roles IS NULL AND id BETWEEN ? AND ?";
+    }
+
+}
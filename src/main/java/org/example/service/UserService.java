@@ -5,16 +5,43 @@ import jakarta.validation.constraints.NotNull;
 import org.example.api.request.UpdateUserReq;
 import org.example.entity.User;
 import org.example.entity.UserRole;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
 import java.util.Set;
 
-public interface UserService extends UserDetailsService {
+public interface UserService extends UserDetailsService, UserDetailsPasswordService {
+
+    String USERNAME_EXISTS = "Username exist!";
+
+    String EMAIL_EXISTS = "Email exist!";
 
     User get(@NotBlank String username);
+
+    /**
+     * @throws jakarta.validation.ValidationException with {@link #USERNAME_EXISTS} or {@link #EMAIL_EXISTS} if the
+     * username or email is taken
+     */
     User save(@NotNull User user);
-    User update(@NotBlank String username, @NotNull UpdateUserReq updateInfo);
+
+    /**
+     * Update the profile fields present in the request, null fields keep their stored value.
+     *
+     * @return Number of updated users, 0 if the user does not exist
+     */
+    int update(@NotBlank String username, @NotNull UpdateUserReq updateInfo);
+
+    /**
+     * Enable the user and lift the revocation of its tokens made by {@link #softDelete(String, Set)}.
+     *
+     * @return Number of enabled users, 0 if the user does not exist
+     */
     int enable(@NotBlank String username);
+
+    /**
+     * @return Number of disabled users, 0 if the user does not exist or -1 if it holds a role the trigger is not
+     * allowed to remove
+     */
     int softDelete(@NotBlank String username, Set<UserRole> triggerAuthorities);
 
 }
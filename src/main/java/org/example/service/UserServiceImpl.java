@@ -3,18 +3,33 @@ package org.example.service;
 import jakarta.validation.ValidationException;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import org.example.api.request.UpdateUserReq;
 import org.example.converter.UpdateUserReqConverter;
 import org.example.entity.User;
 import org.example.entity.UserRole;
+import org.example.entity.UserRoleStorage;
 import org.example.repository.UserRepository;
+import org.example.service.invalidation.Invalidation;
+import org.example.service.invalidation.InvalidationBus;
+import org.example.service.security.AuthMetrics;
+import org.example.service.security.TokenRevocationService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.Optional;
+import java.util.EnumSet;
 import java.util.Set;
 
+/**
+ * Users are changed by single UPDATE statements, which evict only the second-level cache entry of the changed user.
+ * Their id is resolved by natural id first, mostly from the cache, which also tells a missing user apart.
+ */
 @Service
 @AllArgsConstructor
 @Slf4j
@@ -24,11 +39,56 @@ public class UserServiceImpl implements UserService {
 
     private final UpdateUserReqConverter updateUserReqConverter;
 
+    private final UserDetailsCache userDetailsCache;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    private final AuthMetrics authMetrics;
+
+    private final InvalidationBus invalidationBus;
+
+    private final UserRoleStorage userRoleStorage;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username).orElseThrow(() -> new UsernameNotFoundException("User not exist"));
-        return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(),
-          user.getAuthorities());
+        long start = System.nanoTime();
+        try {
+            return userDetailsCache.get(username, this::findUserDetails);
+        } finally {
+            authMetrics.recordUserLookup(System.nanoTime() - start);
+        }
+    }
+
+    private UserDetails findUserDetails(String username) {
+        long start = System.nanoTime();
+        try {
+            User user = userRepository.findByUsername(username).orElseThrow(() -> new UsernameNotFoundException("User not exist"));
+            return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(),
+              user.isEnabled(), user.isAccountNonExpired(), user.isCredentialsNonExpired(), user.isAccountNonLocked(),
+              rolesOf(user));
+        } finally {
+            authMetrics.recordUserLoad(System.nanoTime() - start);
+        }
+    }
+
+    private Set<UserRole> rolesOf(User user) {
+        return user.getAuthorities() != null && !userRoleStorage.isCollection()
+          ? user.getAuthorities() : userRepository.findLegacyAuthorities(user.getUsername());
+    }
+
+    /**
+     * Store a re-encoded password, called by the authentication provider after a successful login when the
+     * stored hash uses an outdated encoding or cost.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        log.debug("Upgrade password encoding for user {}", user.getUsername());
+        userRepository.findIdByUsername(user.getUsername()).ifPresent(id -> {
+            userRepository.updatePassword(id, newPassword);
+            userDetailsCache.evictAfterCommit(user.getUsername(), id);
+        });
+        return org.springframework.security.core.userdetails.User.withUserDetails(user).password(newPassword).build();
     }
 
     @Override
@@ -37,40 +97,91 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public User save(User user) {
-        if (userRepository.findByUsername(user.getUsername()).isPresent()) {
-            throw new ValidationException("Username exist!");
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Unique constraint violated when saving user {}: {}", user.getUsername(), e.getMessage());
+            throw new ValidationException(isEmailViolation(e) ? EMAIL_EXISTS : USERNAME_EXISTS);
         }
-        return userRepository.save(user);
+    }
+
+    /**
+     * Tell the violated unique constraint by its name, dialects report it with a schema prefix or an index suffix.
+     */
+    private static boolean isEmailViolation(DataIntegrityViolationException e) {
+        String violated = e.getCause() instanceof ConstraintViolationException cause
+          && cause.getConstraintName() != null ? cause.getConstraintName() : e.getMessage();
+        return StringUtils.containsIgnoreCase(violated, User.UK_EMAIL);
     }
 
     @Override
-    public User update(String username, UpdateUserReq updateInfo) {
-        User user = userRepository.findByUsername(username).orElseThrow(() -> new UsernameNotFoundException("User not exist"));
+    @Transactional
+    public int update(String username, UpdateUserReq updateInfo) {
+        Long id = userRepository.findIdByUsername(username).orElse(null);
+        if (id == null) {
+            return 0;
+        }
+        User user = new User();
+        user.setId(id);
         updateUserReqConverter.setInfo(user, updateInfo);
         log.debug("Copy value for user {} - {}", username, user);
-        return userRepository.updateInfo(user) == 1 ? user : null;
+        int updated = userRepository.updateInfo(user);
+        userDetailsCache.evictAfterCommit(username, id);
+        return updated;
     }
 
     @Override
+    @Transactional
     public int enable(String username) {
-        User user = userRepository.findByUsername(username).orElseThrow(() -> new UsernameNotFoundException("User not exist"));
-        return userRepository.enable(user.getUsername());
+        Long id = userRepository.findIdByUsername(username).orElse(null);
+        if (id == null) {
+            return 0;
+        }
+        int enabled = userRepository.enable(id);
+        userDetailsCache.evictAfterCommit(username, id);
+        long restoredAt = tokenRevocationService.restoreSubject(username);
+        publishAfterCommit(Invalidation.subjectRestored(username, restoredAt));
+        return enabled;
     }
 
     @Override
+    @Transactional
     public int softDelete(String username, Set<UserRole> triggerAuthorities) {
-        Optional<User> optUser = userRepository.findByUsername(username);
-        if (optUser.isEmpty()) {
+        Set<UserRole> protectedRoles = triggerAuthorities.contains(UserRole.ADMIN)
+          ? EnumSet.of(UserRole.ADMIN) : EnumSet.of(UserRole.ADMIN, UserRole.MOD);
+        Long id = userRepository.findIdByUsername(username).orElse(null);
+        if (id == null) {
             return 0;
         }
-        User user = optUser.get();
-        if (user.getAuthorities().contains(UserRole.ADMIN) ||
-          (!triggerAuthorities.contains(UserRole.ADMIN) && user.getAuthorities().contains(UserRole.MOD))) {
-            log.warn("Not allow to soft delete user {} because of authorities {}", username, user.getAuthorities());
+        int deleted = userRoleStorage.isCollection()
+          ? userRepository.softDeleteByLegacyAuthorities(id, protectedRoles)
+          : userRepository.softDelete(id, protectedRoles);
+        if (deleted == 0) {
+            log.warn("Not allow to soft delete user {} because of protected roles {}", username, protectedRoles);
             return -1;
         }
-        return userRepository.softDelete(username);
+        userDetailsCache.evictAfterCommit(username, id);
+        long revokedAt = tokenRevocationService.revokeSubject(username);
+        publishAfterCommit(Invalidation.subjectRevoked(username, revokedAt));
+        return deleted;
+    }
+
+    /**
+     * Tell the other nodes only about a committed change, a rolled back one must not reach them.
+     */
+    private void publishAfterCommit(Invalidation invalidation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidationBus.publish(invalidation);
+                }
+            });
+        } else {
+            invalidationBus.publish(invalidation);
+        }
     }
 
 }
@@ -0,0 +1,260 @@
+package org.example.service.invalidation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batching, coalescing and delivery shared by the transports.
+ * <p>
+ * Published invalidations wait up to {@code lingerMillis} in a pending map keyed by type and key, so a user updated
+ * several times in a row is sent once. A flusher thread then appends them as one batch to the {@link InvalidationLog}
+ * of this node, from which the transport sends it to the other nodes. Received batches are checked against the
+ * cursor of their origin node: duplicates are skipped, and a gap or a new run of the origin resets the handlers.
+ * <p>
+ * Meters under {@code invalidation.*} report the batches sent and received, the invalidations saved by coalescing,
+ * the resets and the propagation lag from the first publication of a batch to its delivery on this node.
+ */
+@Slf4j
+public abstract class AbstractInvalidationBus implements InvalidationBus, SmartLifecycle {
+
+    protected final String nodeId;
+
+    final InvalidationLog outbox;
+
+    private final long lingerMillis;
+
+    private final List<InvalidationHandler> handlers = new CopyOnWriteArrayList<>();
+
+    private final Map<Invalidation.Key, Invalidation> pending = new LinkedHashMap<>();
+
+    private long pendingSince;
+
+    /**
+     * Run and sequence of the last batch applied per origin node.
+     */
+    private final Map<String, Cursor> cursors = new ConcurrentHashMap<>();
+
+    private final Counter published;
+
+    private final Counter coalesced;
+
+    private final Counter batchesSent;
+
+    private final Counter batchesReceived;
+
+    private final Counter resets;
+
+    private final Timer lag;
+
+    private volatile boolean running;
+
+    private Thread flusher;
+
+    protected AbstractInvalidationBus(String nodeId, long lingerMillis, int logCapacity, MeterRegistry registry) {
+        this.nodeId = nodeId;
+        this.outbox = new InvalidationLog(logCapacity);
+        this.lingerMillis = Math.max(0, lingerMillis);
+        this.published = Counter.builder("invalidation.published")
+          .description("Invalidations published to the other nodes")
+          .register(registry);
+        this.coalesced = Counter.builder("invalidation.coalesced")
+          .description("Invalidations merged into one already pending for the same key")
+          .register(registry);
+        this.batchesSent = Counter.builder("invalidation.batches")
+          .description("Invalidation batches appended to the log of this node or applied from another node")
+          .tag("direction", "sent")
+          .register(registry);
+        this.batchesReceived = Counter.builder("invalidation.batches")
+          .description("Invalidation batches appended to the log of this node or applied from another node")
+          .tag("direction", "received")
+          .register(registry);
+        this.resets = Counter.builder("invalidation.resets")
+          .description("Caches dropped because invalidations of another node may have been missed")
+          .register(registry);
+        this.lag = Timer.builder("invalidation.lag")
+          .description("Time from publishing an invalidation on its origin node until it is applied on this node")
+          .register(registry);
+    }
+
+    @Override
+    public void publish(Invalidation invalidation) {
+        published.increment();
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                pendingSince = System.currentTimeMillis();
+                pending.notifyAll();
+            }
+            Invalidation previous = pending.putIfAbsent(invalidation.coalesceKey(), invalidation);
+            if (previous != null) {
+                pending.put(invalidation.coalesceKey(), previous.merge(invalidation));
+                coalesced.increment();
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(InvalidationHandler handler) {
+        handlers.add(handler);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        flusher = new Thread(this::flushLoop, "invalidation-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        startTransport();
+        log.info("Started invalidation bus of node {}", nodeId);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        synchronized (pending) {
+            pending.notifyAll();
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        stopTransport();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    protected abstract void startTransport();
+
+    protected abstract void stopTransport();
+
+    /**
+     * Hand a batch just appended to the log to the transport. Transports reading the log with cursors ignore it.
+     */
+    protected void transmit(InvalidationBatch batch) {
+    }
+
+    /**
+     * @return Sequence of the last batch applied from the given run of the origin node, or -1 if none was received
+     * yet
+     */
+    protected long cursor(String origin, long epoch) {
+        Cursor cursor = cursors.get(origin);
+        return cursor != null && cursor.epoch() == epoch ? cursor.sequence() : -1;
+    }
+
+    /**
+     * Drop the cursor of the origin node and everything cached if the node restarted since the last batch applied
+     * from it, whatever its previous run published afterwards may be missing.
+     */
+    protected void checkEpoch(String origin, long epoch) {
+        Cursor cursor = cursors.get(origin);
+        if (cursor != null && cursor.epoch() != epoch) {
+            log.warn("Node {} restarted, continue with its new run", origin);
+            cursors.remove(origin);
+            reset(origin);
+        }
+    }
+
+    /**
+     * Apply a batch of another node, unless it was already applied.
+     */
+    protected void receive(InvalidationBatch batch) {
+        checkEpoch(batch.origin(), batch.epoch());
+        long cursor = cursor(batch.origin(), batch.epoch());
+        if (cursor >= 0 && batch.sequence() <= cursor) {
+            return;
+        }
+        if (cursor >= 0 && batch.sequence() != cursor + 1) {
+            log.warn("Missed invalidation batches {} to {} of node {}", cursor + 1, batch.sequence() - 1, batch.origin());
+            reset(batch.origin());
+        }
+        cursors.put(batch.origin(), new Cursor(batch.epoch(), batch.sequence()));
+        batchesReceived.increment();
+        for (InvalidationHandler handler : handlers) {
+            try {
+                handler.onInvalidations(batch.invalidations());
+            } catch (RuntimeException e) {
+                log.error("Failed to apply invalidation batch {} of node {}", batch.sequence(), batch.origin(), e);
+            }
+        }
+        lag.record(Math.max(0, System.currentTimeMillis() - batch.createdAtMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Drop everything cached, then continue after the given batch of the origin node.
+     */
+    protected void resetTo(String origin, long epoch, long sequence) {
+        cursors.put(origin, new Cursor(epoch, sequence));
+        reset(origin);
+    }
+
+    protected void reset(String origin) {
+        resets.increment();
+        log.warn("Reset cached state, invalidations of node {} may have been missed", origin);
+        for (InvalidationHandler handler : handlers) {
+            try {
+                handler.onReset();
+            } catch (RuntimeException e) {
+                log.error("Failed to reset on invalidations of node {}", origin, e);
+            }
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            try {
+                synchronized (pending) {
+                    while (pending.isEmpty() && running) {
+                        pending.wait();
+                    }
+                    if (pending.isEmpty()) {
+                        return;
+                    }
+                }
+                if (running && lingerMillis > 0) {
+                    // Let the invalidations of a burst join the batch
+                    Thread.sleep(lingerMillis);
+                }
+                flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                flush();
+                return;
+            }
+        }
+    }
+
+    private void flush() {
+        List<Invalidation> invalidations;
+        long createdAtMillis;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            invalidations = List.copyOf(pending.values());
+            createdAtMillis = pendingSince;
+            pending.clear();
+        }
+        InvalidationBatch batch = outbox.append(nodeId, createdAtMillis, invalidations);
+        batchesSent.increment();
+        log.debug("Publish invalidation batch {} with {} invalidations", batch.sequence(), invalidations.size());
+        transmit(batch);
+    }
+
+    private record Cursor(long epoch, long sequence) {
+    }
+
+}
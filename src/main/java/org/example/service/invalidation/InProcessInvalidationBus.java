@@ -0,0 +1,48 @@
+package org.example.service.invalidation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Connects the application contexts started in one JVM under the same group name, e.g. several nodes in a test.
+ * Batches are handed to the other members directly by the flusher thread of the publisher, so delivery cannot be
+ * interrupted and no catch-up is needed: a member joining later starts with empty caches.
+ */
+public class InProcessInvalidationBus extends AbstractInvalidationBus {
+
+    private static final Map<String, Set<InProcessInvalidationBus>> GROUPS = new ConcurrentHashMap<>();
+
+    private final String group;
+
+    public InProcessInvalidationBus(String nodeId, long lingerMillis, int logCapacity, MeterRegistry registry,
+                                    String group) {
+        super(nodeId, lingerMillis, logCapacity, registry);
+        this.group = group;
+    }
+
+    @Override
+    protected void startTransport() {
+        GROUPS.computeIfAbsent(group, name -> ConcurrentHashMap.newKeySet()).add(this);
+    }
+
+    @Override
+    protected void stopTransport() {
+        GROUPS.computeIfPresent(group, (name, members) -> {
+            members.remove(this);
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    @Override
+    protected void transmit(InvalidationBatch batch) {
+        for (InProcessInvalidationBus member : GROUPS.getOrDefault(group, Set.of())) {
+            if (member != this) {
+                member.receive(batch);
+            }
+        }
+    }
+
+}
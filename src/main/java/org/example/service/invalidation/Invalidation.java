@@ -0,0 +1,82 @@
+package org.example.service.invalidation;
+
+import java.util.UUID;
+
+/**
+ * A change of cached per-user or security state which every other node has to apply.
+ *
+ * @param type  Kind of state to drop
+ * @param key   Username, token subject, token id or refresh token family
+ * @param value Revocation or restore time or token expiry in epoch millis, the user id for {@link Type#USER} or the
+ *              generation for {@link Type#REFRESH_FAMILY}
+ */
+public record Invalidation(Type type, String key, long value) {
+
+    public enum Type {
+        /**
+         * The user row changed, drop the cached user details and the entity with the id {@code value}.
+         */
+        USER,
+        /**
+         * Every token of the subject issued up to {@code value} is revoked.
+         */
+        SUBJECT_REVOKED,
+        /**
+         * The token id is revoked until it expires at {@code value}.
+         */
+        TOKEN_REVOKED,
+        /**
+         * The revocation of the subject is lifted at {@code value}. Coalesced with {@link #SUBJECT_REVOKED} of the
+         * same subject, so only the later of the two is delivered.
+         */
+        SUBJECT_RESTORED,
+        /**
+         * The refresh token family was opened or rotated to the generation {@code value}, or revoked if it is
+         * {@link #FAMILY_REVOKED}. Merged to the higher value, so a revocation wins over any rotation.
+         */
+        REFRESH_FAMILY
+    }
+
+    public static final long FAMILY_REVOKED = Long.MAX_VALUE;
+
+    public static Invalidation user(String username, long userId) {
+        return new Invalidation(Type.USER, username, userId);
+    }
+
+    public static Invalidation subjectRevoked(String subject, long revokedAt) {
+        return new Invalidation(Type.SUBJECT_REVOKED, subject, revokedAt);
+    }
+
+    public static Invalidation tokenRevoked(String tokenId, long expiresAt) {
+        return new Invalidation(Type.TOKEN_REVOKED, tokenId, expiresAt);
+    }
+
+    public static Invalidation subjectRestored(String subject, long restoredAt) {
+        return new Invalidation(Type.SUBJECT_RESTORED, subject, restoredAt);
+    }
+
+    public static Invalidation refreshFamily(UUID family, int generation) {
+        return new Invalidation(Type.REFRESH_FAMILY, family.toString(), generation);
+    }
+
+    public static Invalidation refreshFamilyRevoked(UUID family) {
+        return new Invalidation(Type.REFRESH_FAMILY, family.toString(), FAMILY_REVOKED);
+    }
+
+    Key coalesceKey() {
+        return new Key(type == Type.SUBJECT_RESTORED ? Type.SUBJECT_REVOKED : type, key);
+    }
+
+    /**
+     * Combine two invalidations of the same key into one: the later revocation or restore time covers the earlier
+     * one, and so does the later generation of a refresh token family. Invalidations of the same username carry the
+     * same user id.
+     */
+    Invalidation merge(Invalidation other) {
+        return value >= other.value ? this : other;
+    }
+
+    record Key(Type type, String key) {
+    }
+
+}
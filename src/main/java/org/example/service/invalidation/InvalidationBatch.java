@@ -0,0 +1,16 @@
+package org.example.service.invalidation;
+
+import java.util.List;
+
+/**
+ * Invalidations published on one node within a linger period, in publication order with duplicates coalesced.
+ *
+ * @param origin          Node id of the publisher
+ * @param epoch           Run of the publisher, random per start, since a configured node id survives a restart
+ * @param sequence        Position in the log of the publisher within its run, starting at 1 with no gaps
+ * @param createdAtMillis Publication time of the oldest invalidation in the batch, the start of its propagation lag
+ * @param invalidations   Invalidations of the batch
+ */
+public record InvalidationBatch(String origin, long epoch, long sequence, long createdAtMillis,
+                                List<Invalidation> invalidations) {
+}
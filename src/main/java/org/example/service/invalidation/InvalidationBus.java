@@ -0,0 +1,16 @@
+package org.example.service.invalidation;
+
+/**
+ * Propagates invalidations of cached user and security state to the other nodes of the cluster. Publishing never
+ * applies the invalidation locally, the caller has already done so.
+ */
+public interface InvalidationBus {
+
+    /**
+     * Queue an invalidation for the other nodes. Returns immediately, invalidations are sent in batches.
+     */
+    void publish(Invalidation invalidation);
+
+    void subscribe(InvalidationHandler handler);
+
+}
@@ -0,0 +1,21 @@
+package org.example.service.invalidation;
+
+import java.util.List;
+
+/**
+ * Applies the invalidations published by other nodes to the state cached on this node.
+ */
+public interface InvalidationHandler {
+
+    /**
+     * Called once per received batch, in the order the origin node published them.
+     */
+    void onInvalidations(List<Invalidation> invalidations);
+
+    /**
+     * Called when invalidations of another node may have been missed, e.g. after falling behind its log, so
+     * everything cached has to be dropped.
+     */
+    void onReset();
+
+}
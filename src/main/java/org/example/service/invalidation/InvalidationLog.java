@@ -0,0 +1,77 @@
+package org.example.service.invalidation;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The last {@code capacity} batches published by this node, read by the other nodes with a cursor: the sequence of
+ * the last batch they applied. A node which was disconnected for a while resumes from its cursor instead of
+ * dropping all its caches, as long as the log still holds the batches after it.
+ * <p>
+ * Sequences restart at 1 with every run of the node, so the log has a random epoch per run. A cursor is only
+ * meaningful together with the epoch it was read under.
+ */
+class InvalidationLog {
+
+    private final InvalidationBatch[] ring;
+
+    private final long epoch = new SecureRandom().nextLong();
+
+    private long lastSequence;
+
+    InvalidationLog(int capacity) {
+        this.ring = new InvalidationBatch[Math.max(1, capacity)];
+    }
+
+    synchronized InvalidationBatch append(String origin, long createdAtMillis, List<Invalidation> invalidations) {
+        InvalidationBatch batch = new InvalidationBatch(origin, epoch, ++lastSequence, createdAtMillis, invalidations);
+        ring[slot(batch.sequence())] = batch;
+        notifyAll();
+        return batch;
+    }
+
+    long epoch() {
+        return epoch;
+    }
+
+    /**
+     * @return Cursor of a reader without history, which receives every batch still held by the log
+     */
+    synchronized long oldestCursor() {
+        return Math.max(0, lastSequence - ring.length);
+    }
+
+    /**
+     * Wait for batches after the cursor.
+     *
+     * @param cursor        Sequence of the last batch the reader applied
+     * @param timeoutMillis Longest time to wait for a batch
+     * @param maxBatches    Most batches to return at once
+     * @return Batches after the cursor, empty if none was published within the timeout, or null if the log does not
+     * cover the cursor: the reader fell behind the oldest batch held, or is ahead of the last one
+     */
+    synchronized List<InvalidationBatch> awaitAfter(long cursor, long timeoutMillis, int maxBatches)
+      throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining = timeoutMillis;
+        while (cursor == lastSequence && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        if (cursor > lastSequence || cursor < lastSequence - ring.length) {
+            return null;
+        }
+        long last = Math.min(lastSequence, cursor + maxBatches);
+        List<InvalidationBatch> batches = new ArrayList<>((int) (last - cursor));
+        for (long sequence = cursor + 1; sequence <= last; sequence++) {
+            batches.add(ring[slot(sequence)]);
+        }
+        return batches;
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % ring.length);
+    }
+
+}
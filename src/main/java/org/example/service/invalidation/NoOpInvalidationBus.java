@@ -0,0 +1,16 @@
+package org.example.service.invalidation;
+
+/**
+ * Bus of a single node deployment, there is nobody to notify.
+ */
+public class NoOpInvalidationBus implements InvalidationBus {
+
+    @Override
+    public void publish(Invalidation invalidation) {
+    }
+
+    @Override
+    public void subscribe(InvalidationHandler handler) {
+    }
+
+}
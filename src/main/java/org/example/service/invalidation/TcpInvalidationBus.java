@@ -0,0 +1,338 @@
+package org.example.service.invalidation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Connects the nodes over plain TCP. Every node listens on {@code bindAddress} and keeps a connection to each of its
+ * peers, from which it receives the batches of that peer.
+ * <p>
+ * On connect both sides prove they know the shared {@code secret} without sending it: the peer sends its node id, the
+ * epoch of its run and a nonce, the subscriber answers with a nonce of its own and an HMAC-SHA256 over both, and the peer returns an HMAC
+ * over them in the other order. A subscriber which does not complete this within three heartbeats is dropped, and at
+ * most {@code maxSubscribers} are served at a time. The frames themselves are neither signed nor encrypted, the
+ * nodes should talk over a private network.
+ * <p>
+ * After the handshake the subscriber sends its cursor for the peer, so a node which lost the connection continues
+ * where it stopped. If the peer restarted in between, under a new id or the same configured one with a new epoch,
+ * the subscriber drops its caches and sends no cursor. A subscriber without a cursor replays what the peer still holds,
+ * which teaches a fresh node the recent token revocations. If the peer's log no longer covers the cursor it sends a
+ * reset and the subscriber drops its caches. Revocations which fell out of the log in between are lost, the log has
+ * to cover the longest expected disconnect.
+ * <p>
+ * Frames are written with {@link DataOutputStream}: a kind byte followed by a batch, the sequence of a reset, or
+ * nothing for the heartbeat sent when the log stays idle.
+ */
+@Slf4j
+public class TcpInvalidationBus extends AbstractInvalidationBus {
+
+    private static final byte BATCH = 1;
+    private static final byte RESET = 2;
+    private static final byte HEARTBEAT = 3;
+
+    private static final int MAX_BATCHES_PER_WRITE = 256;
+
+    private static final int NONCE_BYTES = 16;
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private static final int PROOF_BYTES = 32;
+
+    private static final byte[] SUBSCRIBER_PROOF = "subscriber".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] PUBLISHER_PROOF = "publisher".getBytes(StandardCharsets.US_ASCII);
+
+    private static final Invalidation.Type[] TYPES = Invalidation.Type.values();
+
+    private final InetSocketAddress bindAddress;
+
+    private final List<InetSocketAddress> peers;
+
+    private final int heartbeatMillis;
+
+    private final long reconnectMillis;
+
+    private final SecretKeySpec secret;
+
+    private final Semaphore subscriberSlots;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final Set<Closeable> connections = ConcurrentHashMap.newKeySet();
+
+    private final List<Thread> threads = new ArrayList<>();
+
+    private ServerSocket serverSocket;
+
+    private volatile boolean open;
+
+    public TcpInvalidationBus(String nodeId, long lingerMillis, int logCapacity, MeterRegistry registry,
+                              InetSocketAddress bindAddress, List<InetSocketAddress> peers, int heartbeatMillis,
+                              long reconnectMillis, String secret, int maxSubscribers) {
+        super(nodeId, lingerMillis, logCapacity, registry);
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalArgumentException("The tcp invalidation transport requires a shared secret");
+        }
+        this.bindAddress = bindAddress;
+        this.peers = List.copyOf(peers);
+        this.heartbeatMillis = Math.max(1, heartbeatMillis);
+        this.reconnectMillis = Math.max(1, reconnectMillis);
+        this.secret = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.subscriberSlots = new Semaphore(Math.max(1, maxSubscribers));
+    }
+
+    /**
+     * @return Port this node listens on, useful when bound to port 0
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    protected void startTransport() {
+        try {
+            serverSocket = new ServerSocket();
+            serverSocket.setReuseAddress(true);
+            serverSocket.bind(bindAddress);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to listen for invalidations on " + bindAddress, e);
+        }
+        open = true;
+        startThread("invalidation-accept", this::acceptLoop);
+        for (InetSocketAddress peer : peers) {
+            startThread("invalidation-peer-" + peer.getHostString() + ":" + peer.getPort(), () -> subscribeLoop(peer));
+        }
+        log.debug("Listen for invalidation subscribers on port {}, subscribed to {}", getPort(), peers);
+    }
+
+    @Override
+    protected void stopTransport() {
+        open = false;
+        closeQuietly(serverSocket);
+        connections.forEach(TcpInvalidationBus::closeQuietly);
+        threads.forEach(Thread::interrupt);
+    }
+
+    private void startThread(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        threads.add(thread);
+        thread.start();
+    }
+
+    private void acceptLoop() {
+        while (open) {
+            try {
+                Socket socket = serverSocket.accept();
+                if (!subscriberSlots.tryAcquire()) {
+                    log.warn("Reject invalidation subscriber {}, all subscriber slots are taken",
+                      socket.getRemoteSocketAddress());
+                    closeQuietly(socket);
+                    continue;
+                }
+                Thread thread = new Thread(() -> {
+                    try {
+                        serve(socket);
+                    } finally {
+                        subscriberSlots.release();
+                    }
+                }, "invalidation-subscriber-" + socket.getPort());
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                if (open) {
+                    log.warn("Failed to accept an invalidation subscriber", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stream the log of this node to one subscriber, starting after its cursor.
+     */
+    private void serve(Socket socket) {
+        connections.add(socket);
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            // Only the handshake is read, a subscriber which stays silent must not hold its slot
+            socket.setSoTimeout(heartbeatMillis * 3);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            byte[] publisherNonce = nonce();
+            out.writeUTF(nodeId);
+            out.writeLong(outbox.epoch());
+            out.write(publisherNonce);
+            out.flush();
+            byte[] subscriberNonce = in.readNBytes(NONCE_BYTES);
+            byte[] subscriberProof = in.readNBytes(PROOF_BYTES);
+            if (!MessageDigest.isEqual(subscriberProof, proof(SUBSCRIBER_PROOF, publisherNonce, subscriberNonce))) {
+                log.warn("Reject invalidation subscriber {}, wrong secret", socket.getRemoteSocketAddress());
+                return;
+            }
+            out.write(proof(PUBLISHER_PROOF, subscriberNonce, publisherNonce));
+            out.flush();
+            long cursor = in.readLong();
+            if (cursor < 0) {
+                cursor = outbox.oldestCursor();
+            }
+            log.debug("Invalidation subscriber {} connected at cursor {}", socket.getRemoteSocketAddress(), cursor);
+            while (open) {
+                List<InvalidationBatch> batches = outbox.awaitAfter(cursor, heartbeatMillis, MAX_BATCHES_PER_WRITE);
+                if (batches == null) {
+                    cursor = outbox.oldestCursor();
+                    out.writeByte(RESET);
+                    out.writeLong(cursor);
+                } else if (batches.isEmpty()) {
+                    out.writeByte(HEARTBEAT);
+                } else {
+                    for (InvalidationBatch batch : batches) {
+                        writeBatch(out, batch);
+                    }
+                    cursor = batches.get(batches.size() - 1).sequence();
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            log.debug("Invalidation subscriber {} disconnected: {}", socket.getRemoteSocketAddress(), e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    /**
+     * Receive the batches of one peer, reconnecting with the last cursor whenever the connection drops.
+     */
+    private void subscribeLoop(InetSocketAddress peer) {
+        String previousOrigin = null;
+        while (open) {
+            Socket socket = new Socket();
+            connections.add(socket);
+            try (socket) {
+                socket.connect(peer, heartbeatMillis);
+                // A silent peer missed a few heartbeats
+                socket.setSoTimeout(heartbeatMillis * 3);
+                socket.setTcpNoDelay(true);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                String origin = in.readUTF();
+                long epoch = in.readLong();
+                byte[] publisherNonce = in.readNBytes(NONCE_BYTES);
+                byte[] subscriberNonce = nonce();
+                out.write(subscriberNonce);
+                out.write(proof(SUBSCRIBER_PROOF, publisherNonce, subscriberNonce));
+                out.flush();
+                if (!MessageDigest.isEqual(in.readNBytes(PROOF_BYTES),
+                  proof(PUBLISHER_PROOF, subscriberNonce, publisherNonce))) {
+                    throw new IOException("Handshake with node " + origin + " failed, check the shared secret");
+                }
+                if (previousOrigin != null && !previousOrigin.equals(origin)) {
+                    // The peer restarted under a new id, whatever it published before the restart may be missing
+                    reset(origin);
+                }
+                previousOrigin = origin;
+                checkEpoch(origin, epoch);
+                out.writeLong(cursor(origin, epoch));
+                out.flush();
+                log.debug("Subscribed to invalidations of node {} at {}", origin, peer);
+                while (open) {
+                    byte kind = in.readByte();
+                    switch (kind) {
+                        case BATCH -> receive(readBatch(in, origin, epoch));
+                        case RESET -> resetTo(origin, epoch, in.readLong());
+                        case HEARTBEAT -> {
+                        }
+                        default -> throw new IOException("Unknown invalidation frame " + kind);
+                    }
+                }
+            } catch (IOException e) {
+                if (open) {
+                    log.debug("Invalidation connection to {} lost: {}", peer, e.getMessage());
+                }
+            } finally {
+                connections.remove(socket);
+            }
+            try {
+                Thread.sleep(reconnectMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private byte[] nonce() {
+        byte[] nonce = new byte[NONCE_BYTES];
+        random.nextBytes(nonce);
+        return nonce;
+    }
+
+    private byte[] proof(byte[] role, byte[] first, byte[] second) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(secret);
+            mac.update(role);
+            mac.update(first);
+            return mac.doFinal(second);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to compute the invalidation handshake proof", e);
+        }
+    }
+
+    private static void writeBatch(DataOutputStream out, InvalidationBatch batch) throws IOException {
+        out.writeByte(BATCH);
+        out.writeLong(batch.sequence());
+        out.writeLong(batch.createdAtMillis());
+        out.writeInt(batch.invalidations().size());
+        for (Invalidation invalidation : batch.invalidations()) {
+            out.writeByte(invalidation.type().ordinal());
+            out.writeUTF(invalidation.key());
+            out.writeLong(invalidation.value());
+        }
+    }
+
+    private static InvalidationBatch readBatch(DataInputStream in, String origin, long epoch) throws IOException {
+        long sequence = in.readLong();
+        long createdAtMillis = in.readLong();
+        int size = in.readInt();
+        List<Invalidation> invalidations = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            invalidations.add(new Invalidation(TYPES[in.readUnsignedByte()], in.readUTF(), in.readLong()));
+        }
+        return new InvalidationBatch(origin, epoch, sequence, createdAtMillis, List.copyOf(invalidations));
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            if (closeable != null) {
+                closeable.close();
+            }
+        } catch (IOException e) {
+            log.debug("Failed to close invalidation connection: {}", e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+package org.example.service.invalidation;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.example.entity.User;
+import org.example.service.UserDetailsCache;
+import org.example.service.security.RefreshTokenFamilyStore;
+import org.example.service.security.TokenRevocationService;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Applies the user changes, token revocations and refresh token rotations of the other nodes to the user details
+ * cache, the second-level cache, the revocation filters and the refresh token families of this node.
+ */
+@Component
+@Slf4j
+public class UserStateInvalidationHandler implements InvalidationHandler {
+
+    private final UserDetailsCache userDetailsCache;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    private final RefreshTokenFamilyStore refreshTokenFamilyStore;
+
+    public UserStateInvalidationHandler(InvalidationBus invalidationBus, UserDetailsCache userDetailsCache,
+                                        EntityManagerFactory entityManagerFactory,
+                                        TokenRevocationService tokenRevocationService,
+                                        RefreshTokenFamilyStore refreshTokenFamilyStore) {
+        this.userDetailsCache = userDetailsCache;
+        this.entityManagerFactory = entityManagerFactory;
+        this.tokenRevocationService = tokenRevocationService;
+        this.refreshTokenFamilyStore = refreshTokenFamilyStore;
+        invalidationBus.subscribe(this);
+    }
+
+    @Override
+    public void onInvalidations(List<Invalidation> invalidations) {
+        Cache secondLevelCache = entityManagerFactory.getCache();
+        for (Invalidation invalidation : invalidations) {
+            switch (invalidation.type()) {
+                case USER -> {
+                    userDetailsCache.evict(invalidation.key());
+                    secondLevelCache.evict(User.class, invalidation.value());
+                }
+                case SUBJECT_REVOKED ->
+                  tokenRevocationService.recordSubjectRevocation(invalidation.key(), invalidation.value());
+                case SUBJECT_RESTORED ->
+                  tokenRevocationService.recordSubjectRestore(invalidation.key(), invalidation.value());
+                case TOKEN_REVOKED ->
+                  tokenRevocationService.recordTokenRevocation(invalidation.key(), invalidation.value());
+                case REFRESH_FAMILY -> {
+                    UUID family = UUID.fromString(invalidation.key());
+                    if (invalidation.value() == Invalidation.FAMILY_REVOKED) {
+                        refreshTokenFamilyStore.recordRevocation(family);
+                    } else {
+                        refreshTokenFamilyStore.recordGeneration(family, (int) invalidation.value());
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onReset() {
+        userDetailsCache.evictAll();
+        entityManagerFactory.getCache().evict(User.class);
+        // Revocations of the other nodes are in the shared store
+        tokenRevocationService.load();
+        // Refresh token families are kept: dropping them would end every session, a missed rotation only lets a
+        // replay pass here
+    }
+
+}
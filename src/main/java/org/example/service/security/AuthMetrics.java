@@ -0,0 +1,136 @@
+package org.example.service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the authentication hot paths, published under {@code auth.*} on {@code /actuator/metrics}.
+ * <p>
+ * Every meter is registered up front and kept in a field or an enum map, so recording is a counter increment or a
+ * timer update without a registry lookup or tag allocation per request. Tags only take values from a fixed enum;
+ * usernames, addresses and token ids are never used as tags.
+ */
+@Component
+public class AuthMetrics {
+
+    public enum TokenRejection {
+        INVALID_SIGNATURE, MALFORMED, EXPIRED, UNSUPPORTED, INVALID, REFRESH_TOKEN, REVOKED
+    }
+
+    public enum LoginOutcome {
+        SUCCESS, BAD_CREDENTIALS, RATE_LIMITED, HASHING_REJECTED
+    }
+
+    public enum HashOperation {
+        ENCODE, MATCHES
+    }
+
+    private final MeterRegistry registry;
+
+    private final Timer tokenValidation;
+
+    private final Timer tokenParse;
+
+    private final Map<TokenRejection, Counter> tokenRejections = new EnumMap<>(TokenRejection.class);
+
+    private final Map<LoginOutcome, Counter> logins = new EnumMap<>(LoginOutcome.class);
+
+    private final Map<HashOperation, Timer> passwordHashes = new EnumMap<>(HashOperation.class);
+
+    private final Timer passwordHashWait;
+
+    private final Timer userLookup;
+
+    private final Timer userLoad;
+
+    public AuthMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.tokenValidation = Timer.builder("auth.token.validation")
+          .description("Bearer token validation including cache lookup and revocation check")
+          .register(registry);
+        this.tokenParse = Timer.builder("auth.token.parse")
+          .description("Signature verification and claims decoding of tokens missing from the verified-token cache")
+          .register(registry);
+        for (TokenRejection reason : TokenRejection.values()) {
+            tokenRejections.put(reason, Counter.builder("auth.token.rejected")
+              .description("Bearer tokens rejected by the token filter")
+              .tag("reason", tagValue(reason))
+              .register(registry));
+        }
+        for (LoginOutcome outcome : LoginOutcome.values()) {
+            logins.put(outcome, Counter.builder("auth.login")
+              .description("Login attempts on the authentication endpoint")
+              .tag("outcome", tagValue(outcome))
+              .register(registry));
+        }
+        for (HashOperation operation : HashOperation.values()) {
+            passwordHashes.put(operation, Timer.builder("auth.password.hash")
+              .description("Password hashing on the bounded hashing pool, excluding the queue wait")
+              .tag("operation", tagValue(operation))
+              .register(registry));
+        }
+        this.passwordHashWait = Timer.builder("auth.password.hash.wait")
+          .description("Time a password hash waited in the queue of the hashing pool")
+          .register(registry);
+        this.userLookup = Timer.builder("auth.user.lookup")
+          .description("User details lookup on login, served from the cache or the database")
+          .register(registry);
+        this.userLoad = Timer.builder("auth.user.load")
+          .description("User details loaded from the database on a cache miss")
+          .register(registry);
+    }
+
+    public void recordTokenValidation(long nanos) {
+        tokenValidation.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordTokenParse(long nanos) {
+        tokenParse.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void tokenRejected(TokenRejection reason) {
+        tokenRejections.get(reason).increment();
+    }
+
+    public void login(LoginOutcome outcome) {
+        logins.get(outcome).increment();
+    }
+
+    public void recordPasswordHash(HashOperation operation, long nanos) {
+        passwordHashes.get(operation).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPasswordHashWait(long nanos) {
+        passwordHashWait.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordUserLookup(long nanos) {
+        userLookup.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordUserLoad(long nanos) {
+        userLoad.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Publish size, hit, miss and eviction meters of a cache. Stats are only available when the cache was built
+     * with {@code recordStats()}.
+     */
+    public void monitor(Cache<?, ?> cache, String name) {
+        CaffeineCacheMetrics.monitor(registry, cache, name);
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+}
@@ -0,0 +1,46 @@
+package org.example.service.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks the BCrypt cost factor for the current machine. Every extra round doubles the hashing time, so one timed
+ * hash at the minimum cost is enough to extrapolate to the target latency.
+ */
+@Slf4j
+public final class BCryptCostCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "calibration-sample";
+
+    private BCryptCostCalibrator() {
+    }
+
+    /**
+     * @param targetMillis Target duration of one hash
+     * @param minStrength  Lowest cost factor to return
+     * @param maxStrength  Highest cost factor to return
+     * @return The highest cost factor whose hash time stays within the target, bounded by min and max
+     */
+    public static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minStrength);
+        encoder.encode(SAMPLE_PASSWORD);
+
+        long start = System.nanoTime();
+        encoder.encode(SAMPLE_PASSWORD);
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        long measured = elapsed;
+
+        long target = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+        int strength = minStrength;
+        while (strength < maxStrength && elapsed * 2 <= target) {
+            elapsed *= 2;
+            strength++;
+        }
+        log.info("Calibrated BCrypt strength {} (cost {} took {} ms, target {} ms)", strength, minStrength,
+          TimeUnit.NANOSECONDS.toMillis(measured), targetMillis);
+        return strength;
+    }
+
+}
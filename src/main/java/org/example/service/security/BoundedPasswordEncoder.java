@@ -0,0 +1,98 @@
+package org.example.service.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the hashing of a delegate encoder on a fixed pool of platform threads with a bounded queue.
+ * <p>
+ * The calling thread still waits for the result, but at most {@code threads} hashes run at once and at most
+ * {@code queueCapacity} wait for a thread. Anything beyond that is rejected with
+ * {@link PasswordHashingRejectedException} instead of piling up behind the pool.
+ * <p>
+ * The queue wait and the hashing itself are timed separately, telling a saturated pool from a cost set too high.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegate;
+
+    private final ThreadPoolExecutor executor;
+
+    private final AuthMetrics authMetrics;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, AuthMetrics authMetrics) {
+        this.delegate = delegate;
+        this.authMetrics = authMetrics;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+          new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hash-"),
+          new ThreadPoolExecutor.AbortPolicy());
+        log.debug("Init bounded password encoder with {} threads and queue capacity {}", threads, queueCapacity);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(AuthMetrics.HashOperation.ENCODE, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(AuthMetrics.HashOperation.MATCHES, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T execute(AuthMetrics.HashOperation operation, Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                authMetrics.recordPasswordHashWait(startedAt - submittedAt);
+                try {
+                    return task.call();
+                } finally {
+                    authMetrics.recordPasswordHash(operation, System.nanoTime() - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Reject password hashing, {} running and {} queued", executor.getActiveCount(), executor.getQueue().size());
+            throw new PasswordHashingRejectedException("Password hashing capacity exceeded");
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("Interrupted while waiting for password hashing");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+}
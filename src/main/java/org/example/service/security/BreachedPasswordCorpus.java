@@ -0,0 +1,230 @@
+package org.example.service.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * Offline check of passwords against a corpus of SHA-1 digests of breached passwords, e.g. the Pwned Passwords
+ * download ordered by hash.
+ * <p>
+ * The corpus file holds the 20 byte digests back to back in ascending order, see {@link #compile(Path, Path)} for
+ * building it from the {@code HASH:COUNT} text format. The file is memory-mapped and binary-searched in place, so a
+ * multi-gigabyte corpus costs no heap and a lookup is a few dozen reads of pages the OS keeps cached.
+ * <p>
+ * The file is checked for changes every {@code app.breachedPasswords.refreshMillis}. Replace it by moving a new
+ * file over it: the new file is mapped and swapped in for the following lookups while running lookups finish on the
+ * previous mapping. Rewriting the file in place is not supported. Without a configured or readable file every
+ * password passes.
+ */
+@Component
+@Slf4j
+public class BreachedPasswordCorpus {
+
+    private static final int RECORD_BYTES = 20;
+
+    /**
+     * A mapping is limited to 2 GB, larger files are mapped in chunks of whole records.
+     */
+    private static final long RECORDS_PER_CHUNK = Integer.MAX_VALUE / RECORD_BYTES;
+
+    private final Path file;
+
+    private volatile Corpus corpus = Corpus.EMPTY;
+
+    public BreachedPasswordCorpus(@Value("${app.breachedPasswords.file:}") String file) {
+        this.file = StringUtils.isBlank(file) ? null : Path.of(file);
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${app.breachedPasswords.refreshMillis:60000}",
+      initialDelayString = "${app.breachedPasswords.refreshMillis:60000}")
+    public void refreshScheduled() {
+        refresh();
+    }
+
+    /**
+     * Map the corpus file if it was replaced since the last refresh. A file which cannot be mapped leaves the
+     * current corpus in place.
+     *
+     * @return Whether a new corpus was swapped in
+     */
+    public synchronized boolean refresh() {
+        if (file == null) {
+            return false;
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            Version version = new Version(attributes.fileKey(), attributes.lastModifiedTime().toMillis(),
+              attributes.size());
+            if (version.equals(corpus.version())) {
+                return false;
+            }
+            corpus = Corpus.map(file, version);
+            log.info("Mapped breached password corpus {} with {} digests", file, corpus.records());
+            return true;
+        } catch (NoSuchFileException e) {
+            log.warn("Breached password corpus {} not found, keep the current one with {} digests", file,
+              corpus.records());
+        } catch (IOException | IllegalStateException e) {
+            log.warn("Failed to map breached password corpus {}, keep the current one", file, e);
+        }
+        return false;
+    }
+
+    public boolean isBreached(String password) {
+        Corpus current = corpus;
+        return current.records() > 0 && current.contains(sha1(password));
+    }
+
+    /**
+     * @return Number of digests in the current corpus
+     */
+    public long size() {
+        return corpus.records();
+    }
+
+    /**
+     * Build a corpus file from text lines of 40 hex digits, optionally followed by {@code :COUNT}, in ascending
+     * order. The file is written next to the target and moved over it, so a running application picks it up on its
+     * next refresh.
+     *
+     * @param source Text file, e.g. the Pwned Passwords SHA-1 download ordered by hash
+     * @param target Corpus file
+     * @return Number of digests written
+     */
+    public static long compile(Path source, Path target) throws IOException {
+        Path absoluteTarget = target.toAbsolutePath();
+        Files.createDirectories(absoluteTarget.getParent());
+        Path temp = Files.createTempFile(absoluteTarget.getParent(), absoluteTarget.getFileName().toString(), ".tmp");
+        long records = 0;
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.US_ASCII);
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+            byte[] previous = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                int separator = line.indexOf(':');
+                byte[] digest = HexFormat.of().parseHex(separator < 0 ? line.trim() : line.substring(0, separator));
+                if (digest.length != RECORD_BYTES) {
+                    throw new IllegalArgumentException("Not a SHA-1 digest at line " + (records + 1) + ": " + line);
+                }
+                if (previous != null) {
+                    int order = Arrays.compareUnsigned(previous, digest);
+                    if (order > 0) {
+                        throw new IllegalArgumentException("Digests are not in ascending order at " + line);
+                    } else if (order == 0) {
+                        continue;
+                    }
+                }
+                out.write(digest);
+                previous = digest;
+                records++;
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, absoluteTarget, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return records;
+    }
+
+    private static byte[] sha1(String password) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+
+    /**
+     * Identity of a corpus file: a file moved over it has a different file key, or at least modification time.
+     */
+    private record Version(Object fileKey, long lastModifiedMillis, long size) {
+    }
+
+    private record Corpus(Version version, MappedByteBuffer[] chunks, long records) {
+
+        static final Corpus EMPTY = new Corpus(null, new MappedByteBuffer[0], 0);
+
+        static Corpus map(Path file, Version version) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size % RECORD_BYTES != 0) {
+                    throw new IllegalStateException("Size " + size + " is not a multiple of " + RECORD_BYTES);
+                }
+                long records = size / RECORD_BYTES;
+                MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((records + RECORDS_PER_CHUNK - 1) / RECORDS_PER_CHUNK)];
+                for (int i = 0; i < chunks.length; i++) {
+                    long position = i * RECORDS_PER_CHUNK * RECORD_BYTES;
+                    // The mapping stays valid after the channel is closed, until it is garbage collected
+                    chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position,
+                      RECORDS_PER_CHUNK * RECORD_BYTES));
+                }
+                return new Corpus(version, chunks, records);
+            }
+        }
+
+        boolean contains(byte[] digest) {
+            ByteBuffer key = ByteBuffer.wrap(digest);
+            long high = key.getLong(0);
+            long middle = key.getLong(8);
+            int low = key.getInt(16);
+            long from = 0;
+            long to = records - 1;
+            while (from <= to) {
+                long index = (from + to) >>> 1;
+                int order = compare(index, high, middle, low);
+                if (order < 0) {
+                    from = index + 1;
+                } else if (order > 0) {
+                    to = index - 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Compare the record at the index with the key by unsigned big-endian words, the byte order of the file.
+         */
+        private int compare(long index, long high, long middle, int low) {
+            MappedByteBuffer chunk = chunks[(int) (index / RECORDS_PER_CHUNK)];
+            int offset = (int) (index % RECORDS_PER_CHUNK) * RECORD_BYTES;
+            int order = Long.compareUnsigned(chunk.getLong(offset), high);
+            if (order == 0) {
+                order = Long.compareUnsigned(chunk.getLong(offset + 8), middle);
+            }
+            if (order == 0) {
+                order = Integer.compareUnsigned(chunk.getInt(offset + 16), low);
+            }
+            return order;
+        }
+
+    }
+
+}
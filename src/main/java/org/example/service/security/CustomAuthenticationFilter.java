@@ -9,11 +9,13 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.example.api.response.AuthResp;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.authentication.preauth.PreAuthenticatedCredentialsNotFoundException;
@@ -21,6 +23,10 @@ import org.springframework.security.web.authentication.preauth.PreAuthenticatedC
 import java.io.IOException;
 import java.util.Map;
 
+import static org.example.service.security.StaticJsonResponses.Key.LOGIN_FAILED;
+import static org.example.service.security.StaticJsonResponses.Key.LOGIN_RATE_LIMITED;
+import static org.example.service.security.StaticJsonResponses.Key.PASSWORD_HASHING_SATURATED;
+
 @AllArgsConstructor
 @Slf4j
 public class CustomAuthenticationFilter extends UsernamePasswordAuthenticationFilter {
@@ -31,18 +37,37 @@ public class CustomAuthenticationFilter extends UsernamePasswordAuthenticationFi
 
     private final ObjectMapper objectMapper;
 
+    private final RefreshTokenService refreshTokenService;
+
+    private final LoginRateLimiter loginRateLimiter;
+
+    private final StaticJsonResponses staticJsonResponses;
+
+    private final AuthMetrics authMetrics;
+
     @Override
     public Authentication attemptAuthentication(HttpServletRequest request, HttpServletResponse response) throws AuthenticationException {
         try {
             log.debug("Start custom authenticate filter");
+            // Cheap checks first: the address before reading the body, the username before hashing the password
+            loginRateLimiter.checkClient(request.getRemoteAddr());
             Map<String, String> credentials = objectMapper.readValue(request.getInputStream(), Map.class);
             final String username = credentials.get("username");
             final String password = credentials.get("password");
             if (StringUtils.isBlank(username) || StringUtils.isBlank(password)) {
                 throw new PreAuthenticatedCredentialsNotFoundException("Bad credentials");
             }
+            loginRateLimiter.checkUsername(username);
             log.debug("Start custom authenticate filter - user {}", username);
-            return getAuthenticationManager().authenticate(new UsernamePasswordAuthenticationToken(username, password));
+            try {
+                return getAuthenticationManager().authenticate(new UsernamePasswordAuthenticationToken(username, password));
+            } catch (PasswordHashingRejectedException e) {
+                throw e;
+            } catch (AuthenticationException e) {
+                // Only failed attempts count against the username
+                loginRateLimiter.chargeUsername(username);
+                throw e;
+            }
         } catch (IOException e) {
             throw new PreAuthenticatedCredentialsNotFoundException(e.getMessage());
         }
@@ -57,16 +82,33 @@ public class CustomAuthenticationFilter extends UsernamePasswordAuthenticationFi
     protected void successfulAuthentication(HttpServletRequest request, HttpServletResponse response, FilterChain chain, Authentication authResult) throws IOException, ServletException {
         UserDetails user = (UserDetails) authResult.getPrincipal();
         log.debug("Successful authenticate user {}", user.getUsername());
+        authMetrics.login(AuthMetrics.LoginOutcome.SUCCESS);
 
         String authToken = jwtTokenProvider.generateToken(user.getUsername(), user.getAuthorities());
-        AuthResp body = new AuthResp("Logged In!", false, authToken);
+        String refreshToken = refreshTokenService.issue(user.getUsername());
+        AuthResp body = new AuthResp("Logged In!", false, authToken, refreshToken);
         response.setContentType(MediaType.APPLICATION_JSON_VALUE);
         objectMapper.writeValue(response.getOutputStream(), body);
     }
 
     @Override
     protected void unsuccessfulAuthentication(HttpServletRequest request, HttpServletResponse response, AuthenticationException failed) throws java.io.IOException, ServletException {
-        super.unsuccessfulAuthentication(request, response, failed);
+        SecurityContextHolder.clearContext();
+        if (failed instanceof LoginRateLimitedException rateLimited) {
+            authMetrics.login(AuthMetrics.LoginOutcome.RATE_LIMITED);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(rateLimited.getRetryAfterSeconds()));
+            staticJsonResponses.write(LOGIN_RATE_LIMITED, response);
+            return;
+        }
+        if (failed instanceof PasswordHashingRejectedException) {
+            log.warn("Reject login, password hashing is saturated");
+            authMetrics.login(AuthMetrics.LoginOutcome.HASHING_REJECTED);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            staticJsonResponses.write(PASSWORD_HASHING_SATURATED, response);
+            return;
+        }
+        authMetrics.login(AuthMetrics.LoginOutcome.BAD_CREDENTIALS);
+        staticJsonResponses.write(LOGIN_FAILED, response);
         log.debug("Unsuccessful authenticate");
     }
 
@@ -7,28 +7,23 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.example.config.security.ExcludedPathMatcher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
-
-import static org.example.config.security.WebSecurityConfig.AUTH_URL;
 
 @AllArgsConstructor
 @Slf4j
 public class DevAuthenticationFilter extends OncePerRequestFilter {
 
-    private static final List<String> EXCLUDE_URLS = List.of(AUTH_URL);
-
-    private final AntPathMatcher antPathMatcher = new AntPathMatcher();
-
     private final AuthenticationManager authenticationManager;
 
+    private final ExcludedPathMatcher excludedPathMatcher;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         log.debug("Start dev authentication filter");
@@ -53,7 +48,6 @@ public class DevAuthenticationFilter extends OncePerRequestFilter {
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
-        String path = request.getRequestURI();
-        return EXCLUDE_URLS.stream().anyMatch(p -> antPathMatcher.match(p, path));
+        return excludedPathMatcher.matches(request);
     }
 }
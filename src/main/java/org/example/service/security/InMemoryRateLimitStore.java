@@ -0,0 +1,81 @@
+package org.example.service.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free rate limit state for a single node.
+ * <p>
+ * Buckets are kept with the generic cell rate algorithm: instead of a token count each bucket stores its
+ * theoretical arrival time (TAT), which already encodes the refill, so there is no per-key object and no eviction
+ * sweep. A slot whose TAT lies in the past is simply a full bucket again.
+ * <p>
+ * Keys are hashed onto a fixed array of slots. Each key uses two slots and is judged by the less loaded one, like a
+ * count-min sketch, so an unrelated busy key only throttles a victim when it collides on both. Concurrent
+ * requests for the same key may overshoot the burst by the number of racing threads.
+ */
+@Component
+@Slf4j
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private static final int SECOND_HASH_SEED = 0x9E3779B9;
+
+    private final AtomicLongArray slots;
+
+    private final int mask;
+
+    /**
+     * Stored TATs are relative to this origin, so an untouched slot (0) is a full bucket.
+     */
+    private final long origin = System.nanoTime();
+
+    public InMemoryRateLimitStore(@Value("${app.loginRateLimit.stripes:65536}") int stripes) {
+        int size = Integer.highestOneBit(Math.max(2, stripes));
+        this.slots = new AtomicLongArray(size);
+        this.mask = size - 1;
+        log.debug("Init in-memory rate limit store with {} slots", size);
+    }
+
+    @Override
+    public long tryAcquire(RateLimit limit, String key) {
+        return acquire(limit, key, true);
+    }
+
+    @Override
+    public long available(RateLimit limit, String key) {
+        return acquire(limit, key, false);
+    }
+
+    private long acquire(RateLimit limit, String key, boolean take) {
+        int hash = key.hashCode() * 31 + limit.name().hashCode();
+        int first = spread(hash) & mask;
+        int second = spread(hash ^ SECOND_HASH_SEED) & mask;
+
+        long now = System.nanoTime() - origin;
+        long interval = limit.emissionIntervalNanos();
+        long tolerance = interval * (limit.burst() - 1);
+        long tat = Math.max(now, Math.min(slots.get(first), slots.get(second)));
+        long waitNanos = tat - tolerance - now;
+        if (waitNanos > 0 || !take) {
+            return Math.max(0, waitNanos);
+        }
+
+        long newTat = tat + interval;
+        slots.accumulateAndGet(first, newTat, Math::max);
+        slots.accumulateAndGet(second, newTat, Math::max);
+        return 0;
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+}
@@ -0,0 +1,63 @@
+package org.example.service.security;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.entity.RevokedSubject;
+import org.example.entity.RevokedToken;
+import org.example.repository.RevokedSubjectRepository;
+import org.example.repository.RevokedTokenRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Revocations in the application database. Writes join the transaction of the caller, so a soft delete and the
+ * revocation of the tokens of the user commit together.
+ */
+@Component
+@AllArgsConstructor
+@Slf4j
+public class JpaRevocationStore implements RevocationStore {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    private final RevokedSubjectRepository revokedSubjectRepository;
+
+    @Override
+    public void saveToken(String tokenId, long expiresAt) {
+        revokedTokenRepository.save(new RevokedToken(tokenId, expiresAt));
+    }
+
+    @Override
+    public void saveSubject(String subject, long revokedAt, long expiresAt) {
+        revokedSubjectRepository.save(new RevokedSubject(subject, revokedAt, expiresAt));
+    }
+
+    @Override
+    public void deleteSubject(String subject) {
+        revokedSubjectRepository.deleteById(subject);
+    }
+
+    @Override
+    public List<RevokedToken> findActiveTokens(long now) {
+        return revokedTokenRepository.findByExpiresAtGreaterThan(now);
+    }
+
+    @Override
+    public List<RevokedSubject> findActiveSubjects(long now) {
+        return revokedSubjectRepository.findByExpiresAtGreaterThan(now);
+    }
+
+    /**
+     * Drop the revocations of tokens which have expired anyway.
+     */
+    @Scheduled(fixedDelayString = "${app.revocation.purgeMillis:600000}",
+      initialDelayString = "${app.revocation.purgeMillis:600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        int purged = revokedTokenRepository.deleteExpired(now) + revokedSubjectRepository.deleteExpired(now);
+        log.debug("Purge {} expired token revocations", purged);
+    }
+
+}
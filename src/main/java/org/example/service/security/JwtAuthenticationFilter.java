@@ -7,30 +7,27 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.example.config.security.ExcludedPathMatcher;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
-
-import static org.example.config.security.WebSecurityConfig.AUTH_URL;
 
 @Component
 @AllArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private static final List<String> EXCLUDE_URLS = List.of(AUTH_URL);
-
-    private final AntPathMatcher antPathMatcher = new AntPathMatcher();
+    private final WebAuthenticationDetailsSource authenticationDetailsSource = new WebAuthenticationDetailsSource();
 
     private final JwtTokenProvider jwtTokenProvider;
 
+    private final ExcludedPathMatcher excludedPathMatcher;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         final String header = request.getHeader(HttpHeaders.AUTHORIZATION);
@@ -39,7 +36,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String jwtToken = header.substring("Bearer ".length());
             UsernamePasswordAuthenticationToken authentication = jwtTokenProvider.validateToken(jwtToken);
             if (authentication != null) {
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                authentication.setDetails(authenticationDetailsSource.buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         }
@@ -48,8 +45,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
-        String path = request.getRequestURI();
-        return EXCLUDE_URLS.stream().anyMatch(p -> antPathMatcher.match(p, path));
+        return excludedPathMatcher.matches(request);
     }
 
 }
@@ -1,36 +1,60 @@
 package org.example.service.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SecurityException;
 import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.example.service.invalidation.Invalidation;
+import org.example.service.invalidation.InvalidationBus;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.AuthorityUtils;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.Key;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class JwtTokenProvider {
 
     private static final int HS256_MIN_BIT_LENGTH = 256;
     private static final String AUTHORITIES_KEY = "authorities";
+    private static final String ROLES_KEY = "rol";
+    private static final String TOKEN_TYPE_KEY = "token_type";
+    private static final String REFRESH_TOKEN_TYPE = "refresh";
+    private static final String FAMILY_KEY = "fam";
+    private static final String GENERATION_KEY = "gen";
+    private static final int TOKEN_ID_RANDOM_BYTES = 10;
 
     @Value("${app.secretKey}")
     private String secretKey;
@@ -38,14 +62,60 @@ public class JwtTokenProvider {
     @Value("${app.ttl}")
     private long ttl;
 
+    /**
+     * Issue compact access tokens: roles as a {@link org.example.entity.UserRole} bitmask and no issued-at claim.
+     * Tokens in either format are accepted regardless of this flag.
+     */
+    @Value("${app.token.compact:false}")
+    private boolean compactToken;
+
+    @Value("${app.refreshTtl:10080}")
+    private long refreshTtl;
+
+    /**
+     * Keep accepting tokens without a kid, signed with {@code app.secretKey}, while the key ring is enabled. Only
+     * meant for the migration from HS256: turn it on for one refresh token ttl after the switch, by then every
+     * token issued before has expired. Tokens without a kid are always accepted while the ring is disabled.
+     */
+    @Value("${app.signing.acceptLegacyHs256:false}")
+    private boolean acceptLegacyHs256;
+
+    @Value("${app.tokenCache.maxSize:10000}")
+    private long tokenCacheMaxSize;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    private final SigningKeyRing signingKeyRing;
+
+    private final AuthMetrics authMetrics;
+
+    private final InvalidationBus invalidationBus;
+
     private SecretKey key;
 
+    private JwtParser jwtParser;
+
+    /**
+     * Tokens which already passed signature verification, keyed by the SHA-256 digest of the compact token.
+     * Null when the cache is disabled with a non-positive max size.
+     */
+    private Cache<String, VerifiedToken> verifiedTokens;
+
     @PostConstruct
     public void initSecretKey() {
         if (StringUtils.isBlank(secretKey)) {
             throw new IllegalStateException("JWT secret key is not set");
         }
         key = hmacShaKeyFor(secretKey.getBytes());
+        jwtParser = Jwts.parser().keyLocator(new VerificationKeyLocator()).build();
+        if (tokenCacheMaxSize > 0) {
+            verifiedTokens = Caffeine.newBuilder()
+              .maximumSize(tokenCacheMaxSize)
+              .expireAfter(new VerifiedTokenExpiry())
+              .recordStats()
+              .build();
+            authMetrics.monitor(verifiedTokens, "verifiedTokens");
+        }
     }
 
     /**
@@ -85,14 +155,111 @@ public class JwtTokenProvider {
      * @return Long live token
      */
     public String generateToken(String subjectIdentifier, Collection<? extends GrantedAuthority> grantedAuthorities) {
-        return Jwts.builder().claim(AUTHORITIES_KEY, grantedAuthorities)
+        long now = System.currentTimeMillis();
+        if (compactToken) {
+            return generateCompactToken(subjectIdentifier, grantedAuthorities, now);
+        }
+        return sign(Jwts.builder().claim(AUTHORITIES_KEY, grantedAuthorities)
+          .id(newTokenId(now))
           .subject(subjectIdentifier)
-          .issuedAt(new Date())
-          .expiration(new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttl * 60)))
-          .signWith(key)
+          .issuedAt(new Date(now))
+          .expiration(new Date(now + TimeUnit.SECONDS.toMillis(ttl * 60))));
+    }
+
+    private String generateCompactToken(String subjectIdentifier, Collection<? extends GrantedAuthority> grantedAuthorities,
+                                        long now) {
+        return sign(Jwts.builder().subject(subjectIdentifier)
+          .id(newTokenId(now))
+          .claim(ROLES_KEY, RoleAuthorities.maskOfGranted(grantedAuthorities))
+          .expiration(new Date(now + TimeUnit.MINUTES.toMillis(ttl))));
+    }
+
+    /**
+     * Sign with the active key of the ring, named by kid in the header, or with the shared secret when the ring
+     * is disabled.
+     */
+    private String sign(JwtBuilder builder) {
+        SigningKeyRing.SigningKey signingKey = signingKeyRing.activeKey();
+        if (signingKey == null) {
+            return builder.signWith(key).compact();
+        }
+        return builder.header().keyId(signingKey.kid()).and()
+          .signWith(signingKey.privateKey())
           .compact();
     }
 
+    /**
+     * The issue time in epoch millis followed by 80 random bits, URL-safe. The issue time is what subject
+     * revocations are compared with: the {@code iat} claim only has second precision and compact tokens omit it.
+     * Only uniqueness matters for the random part, the token signature protects the id.
+     */
+    private static String newTokenId(long issuedAt) {
+        byte[] random = new byte[TOKEN_ID_RANDOM_BYTES];
+        ThreadLocalRandom.current().nextBytes(random);
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + TOKEN_ID_RANDOM_BYTES).putLong(issuedAt).put(random);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * Issue time of the token in epoch millis, read from its id. Tokens issued without an id, before revocation
+     * existed, fall back to {@code iat} or to the expiry minus the ttl.
+     */
+    private long issuedAtOf(Claims claims, long expiresAt) {
+        String tokenId = claims.getId();
+        if (tokenId != null && tokenId.length() == (Long.BYTES + TOKEN_ID_RANDOM_BYTES) * 4 / 3) {
+            try {
+                return ByteBuffer.wrap(Base64.getUrlDecoder().decode(tokenId)).getLong();
+            } catch (IllegalArgumentException e) {
+                log.debug("Token id {} carries no issue time", tokenId);
+            }
+        }
+        if (claims.getIssuedAt() != null) {
+            return claims.getIssuedAt().getTime();
+        }
+        return expiresAt - TimeUnit.MINUTES.toMillis(ttl);
+    }
+
+    /**
+     * Generate a refresh token. It carries no authorities and is rejected by {@link #validateToken(String)}.
+     *
+     * @param subjectIdentifier Identifier of the subject owning the token
+     * @param family            Token family the refresh token belongs to
+     * @param generation        Generation of the token within its family
+     * @return Refresh token
+     */
+    public String generateRefreshToken(String subjectIdentifier, UUID family, int generation) {
+        return sign(Jwts.builder().claim(TOKEN_TYPE_KEY, REFRESH_TOKEN_TYPE)
+          .claim(FAMILY_KEY, family.toString())
+          .claim(GENERATION_KEY, generation)
+          .subject(subjectIdentifier)
+          .issuedAt(new Date())
+          .expiration(new Date(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(refreshTtl))));
+    }
+
+    /**
+     * Verify a refresh token.
+     *
+     * @param token Refresh token
+     * @return Token content or null if the token is invalid, expired or not a refresh token
+     */
+    public RefreshToken parseRefreshToken(String token) {
+        if (StringUtils.isBlank(token)) {
+            return null;
+        }
+        try {
+            Claims claims = getAllClaimsFromToken(token);
+            String family = claims.get(FAMILY_KEY, String.class);
+            Integer generation = claims.get(GENERATION_KEY, Integer.class);
+            if (!REFRESH_TOKEN_TYPE.equals(claims.get(TOKEN_TYPE_KEY, String.class)) || family == null || generation == null) {
+                return null;
+            }
+            return new RefreshToken(claims.getSubject(), UUID.fromString(family), generation);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Invalid refresh token.", e);
+        }
+        return null;
+    }
+
     public String getUsernameFromToken(String token) {
         return getClaimFromToken(token, Claims::getSubject);
     }
@@ -107,32 +274,173 @@ public class JwtTokenProvider {
     }
 
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+        return jwtParser.parseSignedClaims(token).getPayload();
     }
 
+    /**
+     * Validate the token and build the authentication it carries. Tokens seen before are served from the
+     * verified-token cache, which skips the HMAC check and the JSON decoding of the payload.
+     *
+     * @param token Compact JWT
+     * @return Authentication or null if the token is invalid
+     */
     public UsernamePasswordAuthenticationToken validateToken(String token) {
         if (StringUtils.isBlank(token)) {
             return null;
         }
+        long start = System.nanoTime();
         try {
-            Claims claims = getAllClaimsFromToken(token);
-            if (!claims.containsKey(AUTHORITIES_KEY)) {
-                return new UsernamePasswordAuthenticationToken(claims.getSubject(), null, AuthorityUtils.NO_AUTHORITIES);
+            VerifiedToken verified = verify(token);
+            if (verified == null) {
+                log.debug("Refresh token used as access token.");
+                authMetrics.tokenRejected(AuthMetrics.TokenRejection.REFRESH_TOKEN);
+                return null;
             }
-
-            List<String> authorities = (List<String>)claims.get(AUTHORITIES_KEY);
-            return new UsernamePasswordAuthenticationToken(claims.getSubject(), null,
-              authorities.stream().map(r -> new SimpleGrantedAuthority("ROLE_" + r)).collect(Collectors.toList()));
-        } catch (SecurityException | MalformedJwtException e) {
+            if (tokenRevocationService.isRevoked(verified.tokenId(), verified.subject(), verified.issuedAt())) {
+                log.debug("Revoked JWT token.");
+                authMetrics.tokenRejected(AuthMetrics.TokenRejection.REVOKED);
+                return null;
+            }
+            return new RoleMaskAuthenticationToken(verified.subject(), verified.roleMask());
+        } catch (SecurityException e) {
             log.debug("Invalid JWT signature.", e);
+            authMetrics.tokenRejected(AuthMetrics.TokenRejection.INVALID_SIGNATURE);
+        } catch (MalformedJwtException e) {
+            log.debug("Malformed JWT token.", e);
+            authMetrics.tokenRejected(AuthMetrics.TokenRejection.MALFORMED);
         } catch (ExpiredJwtException e) {
             log.debug("Expired JWT token.", e);
+            authMetrics.tokenRejected(AuthMetrics.TokenRejection.EXPIRED);
         } catch (UnsupportedJwtException e) {
             log.debug("Unsupported JWT token.", e);
+            authMetrics.tokenRejected(AuthMetrics.TokenRejection.UNSUPPORTED);
         } catch (IllegalArgumentException e) {
             log.debug("JWT token compact of handler are invalid.", e);
+            authMetrics.tokenRejected(AuthMetrics.TokenRejection.INVALID);
+        } finally {
+            authMetrics.recordTokenValidation(System.nanoTime() - start);
         }
         return null;
     }
 
+    /**
+     * Revoke an access token, e.g. on logout. Tokens issued without an id can only be revoked with their subject.
+     *
+     * @param token Compact JWT
+     * @return Subject of the revoked token, or null if the token is invalid or has no id
+     */
+    public String revoke(String token) {
+        if (StringUtils.isBlank(token)) {
+            return null;
+        }
+        try {
+            VerifiedToken verified = verify(token);
+            if (verified == null || verified.tokenId() == null) {
+                return null;
+            }
+            tokenRevocationService.revokeToken(verified.tokenId(), verified.expiresAt());
+            invalidationBus.publish(Invalidation.tokenRevoked(verified.tokenId(), verified.expiresAt()));
+            return verified.subject();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Invalid JWT token on revocation.", e);
+        }
+        return null;
+    }
+
+    private VerifiedToken verify(String token) {
+        if (verifiedTokens == null) {
+            return parse(token);
+        }
+        String digest = digest(token);
+        VerifiedToken verified = verifiedTokens.getIfPresent(digest);
+        if (verified == null) {
+            verified = parse(token);
+            if (verified != null) {
+                verifiedTokens.put(digest, verified);
+            }
+        }
+        return verified;
+    }
+
+    private VerifiedToken parse(String token) {
+        long start = System.nanoTime();
+        try {
+            return toVerifiedToken(getAllClaimsFromToken(token));
+        } finally {
+            authMetrics.recordTokenParse(System.nanoTime() - start);
+        }
+    }
+
+    private VerifiedToken toVerifiedToken(Claims claims) {
+        if (claims.containsKey(TOKEN_TYPE_KEY)) {
+            return null;
+        }
+        long expiresAt = claims.getExpiration() == null ? Long.MAX_VALUE : claims.getExpiration().getTime();
+        long issuedAt = issuedAtOf(claims, expiresAt);
+        if (claims.get(ROLES_KEY) instanceof Number roleMask) {
+            return new VerifiedToken(claims.getSubject(), claims.getId(), roleMask.intValue(), issuedAt, expiresAt);
+        }
+        if (!claims.containsKey(AUTHORITIES_KEY)) {
+            return new VerifiedToken(claims.getSubject(), claims.getId(), 0, issuedAt, expiresAt);
+        }
+
+        List<?> authorities = (List<?>) claims.get(AUTHORITIES_KEY);
+        return new VerifiedToken(claims.getSubject(), claims.getId(), RoleAuthorities.maskOfNames(authorities), issuedAt,
+          expiresAt);
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().withoutPadding()
+              .encodeToString(messageDigest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Result of a successful signature verification, kept until the token itself expires.
+     */
+    private record VerifiedToken(String subject, String tokenId, int roleMask, long issuedAt, long expiresAt) {
+    }
+
+    /**
+     * Tokens with a kid are verified with the matching public key of the ring, a single hash lookup. Tokens without
+     * one were signed with the shared HS256 secret, accepted while the ring is disabled or during the migration,
+     * see {@link #acceptLegacyHs256}. An unknown kid yields no key, and the parser rejects the token.
+     */
+    private final class VerificationKeyLocator extends LocatorAdapter<Key> {
+
+        @Override
+        protected Key locate(JwsHeader header) {
+            String kid = header.getKeyId();
+            if (kid != null) {
+                return signingKeyRing.verificationKey(kid);
+            }
+            return !signingKeyRing.isEnabled() || acceptLegacyHs256 ? key : null;
+        }
+
+    }
+
+    private static final class VerifiedTokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long remainingMillis = value.expiresAt() - System.currentTimeMillis();
+            return remainingMillis <= 0 ? 0 : TimeUnit.MILLISECONDS.toNanos(remainingMillis);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+    }
+
 }
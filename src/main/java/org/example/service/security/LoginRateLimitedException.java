@@ -0,0 +1,19 @@
+package org.example.service.security;
+
+import lombok.Getter;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Thrown before authentication when a client address or username ran out of login attempts.
+ */
+@Getter
+public class LoginRateLimitedException extends AuthenticationException {
+
+    private final long retryAfterSeconds;
+
+    public LoginRateLimitedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+}
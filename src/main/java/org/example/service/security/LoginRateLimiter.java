@@ -0,0 +1,82 @@
+package org.example.service.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token buckets per client address and per username, checked before the password is hashed. The address is the
+ * servlet remote address; behind a proxy it is only meaningful with forwarded headers handled by the container.
+ * <p>
+ * Every attempt takes a token of its address. The username bucket is only checked up front and charged when the
+ * authentication fails, so the owner logging in successfully never uses up the attempts of their own account.
+ */
+@Component
+@Slf4j
+public class LoginRateLimiter {
+
+    private final RateLimitStore rateLimitStore;
+
+    private final boolean enabled;
+
+    private final RateLimit clientLimit;
+
+    private final RateLimit usernameLimit;
+
+    public LoginRateLimiter(RateLimitStore rateLimitStore,
+                            @Value("${app.loginRateLimit.enabled:true}") boolean enabled,
+                            @Value("${app.loginRateLimit.ip.burst:20}") int clientBurst,
+                            @Value("${app.loginRateLimit.ip.perMinute:60}") int clientPerMinute,
+                            @Value("${app.loginRateLimit.username.burst:5}") int usernameBurst,
+                            @Value("${app.loginRateLimit.username.perMinute:10}") int usernamePerMinute) {
+        this.rateLimitStore = rateLimitStore;
+        this.enabled = enabled;
+        this.clientLimit = RateLimit.perMinute("ip", clientBurst, clientPerMinute);
+        this.usernameLimit = RateLimit.perMinute("username", usernameBurst, usernamePerMinute);
+    }
+
+    /**
+     * @throws LoginRateLimitedException when the client address has no attempts left
+     */
+    public void checkClient(String remoteAddress) {
+        check(clientLimit, remoteAddress);
+    }
+
+    /**
+     * Check without charging, see {@link #chargeUsername(String)}.
+     *
+     * @throws LoginRateLimitedException when the username has no attempts left
+     */
+    public void checkUsername(String username) {
+        if (enabled && username != null) {
+            reject(usernameLimit, username, rateLimitStore.available(usernameLimit, username));
+        }
+    }
+
+    /**
+     * Take an attempt of the username after a failed authentication.
+     */
+    public void chargeUsername(String username) {
+        if (enabled && username != null) {
+            rateLimitStore.tryAcquire(usernameLimit, username);
+        }
+    }
+
+    private void check(RateLimit limit, String key) {
+        if (!enabled || key == null) {
+            return;
+        }
+        reject(limit, key, rateLimitStore.tryAcquire(limit, key));
+    }
+
+    private void reject(RateLimit limit, String key, long waitNanos) {
+        if (waitNanos > 0) {
+            log.warn("Reject login attempt, {} limit exceeded for {}", limit.name(), key);
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            throw new LoginRateLimitedException("Too many login attempts", retryAfterSeconds);
+        }
+    }
+
+}
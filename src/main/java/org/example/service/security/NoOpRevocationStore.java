@@ -0,0 +1,35 @@
+package org.example.service.security;
+
+import org.example.entity.RevokedSubject;
+import org.example.entity.RevokedToken;
+
+import java.util.List;
+
+/**
+ * Keeps nothing, revocations only live in memory until a restart. For benchmarks and tests without a database.
+ */
+public class NoOpRevocationStore implements RevocationStore {
+
+    @Override
+    public void saveToken(String tokenId, long expiresAt) {
+    }
+
+    @Override
+    public void saveSubject(String subject, long revokedAt, long expiresAt) {
+    }
+
+    @Override
+    public void deleteSubject(String subject) {
+    }
+
+    @Override
+    public List<RevokedToken> findActiveTokens(long now) {
+        return List.of();
+    }
+
+    @Override
+    public List<RevokedSubject> findActiveSubjects(long now) {
+        return List.of();
+    }
+
+}
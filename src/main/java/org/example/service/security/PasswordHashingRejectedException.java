@@ -0,0 +1,15 @@
+package org.example.service.security;
+
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+/**
+ * Thrown when the password hashing executor has no capacity left for another BCrypt operation.
+ * Extends {@link InternalAuthenticationServiceException} so the provider manager rethrows it as is.
+ */
+public class PasswordHashingRejectedException extends InternalAuthenticationServiceException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,25 @@
+package org.example.service.security;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket settings. One token is refilled every {@code emissionIntervalNanos} and at most {@code burst}
+ * tokens can be saved up.
+ *
+ * @param name                  Key space of the limit, keys of different limits never share state
+ * @param burst                 Bucket capacity
+ * @param emissionIntervalNanos Refill interval of one token
+ */
+public record RateLimit(String name, int burst, long emissionIntervalNanos) {
+
+    public RateLimit {
+        if (burst < 1 || emissionIntervalNanos < 1) {
+            throw new IllegalArgumentException("Rate limit " + name + " needs a positive burst and rate");
+        }
+    }
+
+    public static RateLimit perMinute(String name, int burst, int perMinute) {
+        return new RateLimit(name, burst, TimeUnit.MINUTES.toNanos(1) / Math.max(1, perMinute));
+    }
+
+}
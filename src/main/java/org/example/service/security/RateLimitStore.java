@@ -0,0 +1,25 @@
+package org.example.service.security;
+
+/**
+ * State of the login rate limits. The in-memory implementation only sees the attempts of its own node; a shared
+ * store, e.g. backed by Redis, can replace it to enforce the limits across the cluster.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Take one token of the bucket of {@code key}.
+     *
+     * @param limit Limit to apply
+     * @param key   Bucket key, e.g. a username or client address
+     * @return 0 if the request is allowed, otherwise the nanoseconds until the next token is available
+     */
+    long tryAcquire(RateLimit limit, String key);
+
+    /**
+     * Check the bucket of {@code key} without taking a token.
+     *
+     * @return 0 if a token is available, otherwise the nanoseconds until the next token is available
+     */
+    long available(RateLimit limit, String key);
+
+}
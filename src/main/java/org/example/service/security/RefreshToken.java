@@ -0,0 +1,13 @@
+package org.example.service.security;
+
+import java.util.UUID;
+
+/**
+ * Verified content of a refresh token.
+ *
+ * @param subject    Username the token was issued to
+ * @param family     Family shared by every token rotated from the same login
+ * @param generation Position of the token in its family, starting at 0
+ */
+public record RefreshToken(String subject, UUID family, int generation) {
+}
@@ -0,0 +1,104 @@
+package org.example.service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.example.service.invalidation.Invalidation;
+import org.example.service.invalidation.InvalidationBus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the latest generation of every refresh token family, which is all that is needed to detect reuse:
+ * presenting any generation other than the latest one means a rotated token was replayed, and the whole family
+ * is revoked.
+ * <p>
+ * A family is dropped once it has not been rotated for the refresh token ttl, since every token in it has
+ * expired by then.
+ * <p>
+ * Every node keeps its own families. Openings, rotations and revocations are published on the
+ * {@link InvalidationBus}, so a token can be refreshed on another node than the one which issued it, and a replay
+ * is detected on every node. A replay reaching another node within the propagation lag of the rotation still
+ * passes there.
+ */
+@Component
+@Slf4j
+public class RefreshTokenFamilyStore {
+
+    private static final int REVOKED = -1;
+
+    private final Cache<UUID, Integer> families;
+
+    private final InvalidationBus invalidationBus;
+
+    public RefreshTokenFamilyStore(@Value("${app.refreshTtl:10080}") long refreshTtl,
+                                   @Value("${app.refreshFamilies.maxSize:100000}") long maxSize,
+                                   InvalidationBus invalidationBus) {
+        this.families = Caffeine.newBuilder()
+          .maximumSize(maxSize)
+          .expireAfterWrite(refreshTtl, TimeUnit.MINUTES)
+          .build();
+        this.invalidationBus = invalidationBus;
+    }
+
+    /**
+     * Start a new family at generation 0.
+     *
+     * @return Family id
+     */
+    public UUID open() {
+        UUID family = UUID.randomUUID();
+        families.put(family, 0);
+        invalidationBus.publish(Invalidation.refreshFamily(family, 0));
+        return family;
+    }
+
+    /**
+     * Advance the family if the presented generation is the latest one, otherwise revoke it.
+     *
+     * @param family     Family id
+     * @param generation Generation of the presented token
+     * @return The next generation, or a negative value if the family is unknown, revoked or reused
+     */
+    public int rotate(UUID family, int generation) {
+        Integer next = families.asMap().compute(family, (key, current) -> {
+            if (current == null) {
+                return null;
+            }
+            return current == generation ? current + 1 : REVOKED;
+        });
+        if (next == null || next != generation + 1) {
+            log.debug("Reject rotation of refresh token family {} at generation {}", family, generation);
+            if (next != null) {
+                invalidationBus.publish(Invalidation.refreshFamilyRevoked(family));
+            }
+            return REVOKED;
+        }
+        invalidationBus.publish(Invalidation.refreshFamily(family, next));
+        return next;
+    }
+
+    public void revoke(UUID family) {
+        families.asMap().computeIfPresent(family, (key, current) -> REVOKED);
+        invalidationBus.publish(Invalidation.refreshFamilyRevoked(family));
+    }
+
+    /**
+     * Apply a rotation made on another node. A generation older than the one held here changes nothing.
+     */
+    public void recordGeneration(UUID family, int generation) {
+        families.asMap().merge(family, generation,
+          (current, received) -> current == REVOKED ? REVOKED : Math.max(current, received));
+    }
+
+    /**
+     * Apply a revocation made on another node, including one of a family this node has not heard of yet.
+     */
+    public void recordRevocation(UUID family) {
+        families.put(family, REVOKED);
+    }
+
+}
@@ -0,0 +1,82 @@
+package org.example.service.security;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+@Service
+@AllArgsConstructor
+@Slf4j
+public class RefreshTokenService {
+
+    private final JwtTokenProvider jwtTokenProvider;
+
+    private final RefreshTokenFamilyStore refreshTokenFamilyStore;
+
+    private final UserDetailsService userDetailsService;
+
+    /**
+     * Issue the first refresh token of a new family, after a password login.
+     *
+     * @param username Authenticated username
+     * @return Refresh token
+     */
+    public String issue(String username) {
+        return jwtTokenProvider.generateRefreshToken(username, refreshTokenFamilyStore.open(), 0);
+    }
+
+    /**
+     * Exchange a refresh token for a new access token and the next refresh token of its family. No password is
+     * checked; the user is reloaded from the user details cache so a disabled account cannot refresh.
+     *
+     * @param refreshToken Refresh token presented by the client
+     * @return New token pair, or null if the token is invalid, reused or the user can no longer log in
+     */
+    public TokenPair rotate(String refreshToken) {
+        RefreshToken token = jwtTokenProvider.parseRefreshToken(refreshToken);
+        if (token == null) {
+            return null;
+        }
+
+        int generation = refreshTokenFamilyStore.rotate(token.family(), token.generation());
+        if (generation < 0) {
+            log.warn("Refresh token reuse detected for user {}", token.subject());
+            return null;
+        }
+
+        UserDetails user;
+        try {
+            user = userDetailsService.loadUserByUsername(token.subject());
+        } catch (UsernameNotFoundException e) {
+            refreshTokenFamilyStore.revoke(token.family());
+            return null;
+        }
+        if (!user.isEnabled() || !user.isAccountNonLocked() || !user.isAccountNonExpired()) {
+            log.debug("Reject refresh token of disabled user {}", token.subject());
+            refreshTokenFamilyStore.revoke(token.family());
+            return null;
+        }
+
+        String accessToken = jwtTokenProvider.generateToken(user.getUsername(), user.getAuthorities());
+        return new TokenPair(accessToken, jwtTokenProvider.generateRefreshToken(user.getUsername(), token.family(), generation));
+    }
+
+    /**
+     * Revoke the family of a refresh token, e.g. on logout.
+     *
+     * @param refreshToken Refresh token presented by the client
+     * @return Whether the token was valid
+     */
+    public boolean revoke(String refreshToken) {
+        RefreshToken token = jwtTokenProvider.parseRefreshToken(refreshToken);
+        if (token == null) {
+            return false;
+        }
+        refreshTokenFamilyStore.revoke(token.family());
+        return true;
+    }
+
+}
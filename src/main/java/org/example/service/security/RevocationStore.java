@@ -0,0 +1,25 @@
+package org.example.service.security;
+
+import org.example.entity.RevokedSubject;
+import org.example.entity.RevokedToken;
+
+import java.util.List;
+
+/**
+ * Durable copy of the token revocations. {@link TokenRevocationService} writes every revocation made on this node
+ * through to the store and reloads the ones which have not expired at startup, so a restart does not accept
+ * revoked tokens again.
+ */
+public interface RevocationStore {
+
+    void saveToken(String tokenId, long expiresAt);
+
+    void saveSubject(String subject, long revokedAt, long expiresAt);
+
+    void deleteSubject(String subject);
+
+    List<RevokedToken> findActiveTokens(long now);
+
+    List<RevokedSubject> findActiveSubjects(long now);
+
+}
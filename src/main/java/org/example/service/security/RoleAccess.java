@@ -0,0 +1,18 @@
+package org.example.service.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+/**
+ * Role checks for method security expressions, e.g. {@code @roleAccess.hasAnyRole(authentication, 'MOD')}.
+ * Same semantics as {@code hasAnyRole}, but answered with one bit test against the role mask of the token instead
+ * of building a set of authority strings per call.
+ */
+@Component
+public class RoleAccess {
+
+    public boolean hasAnyRole(Authentication authentication, String... roles) {
+        return (RoleAuthorities.maskOf(authentication) & RoleAuthorities.maskOf(roles)) != 0;
+    }
+
+}
@@ -0,0 +1,183 @@
+package org.example.service.security;
+
+import org.example.entity.UserRole;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable {@code ROLE_}-prefixed authority sets, one per combination of {@link UserRole} bits. With three roles
+ * there are eight instances, shared by every authenticated request.
+ */
+public final class RoleAuthorities {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private static final UserRole[] ROLES = UserRole.values();
+
+    private static final Map<String, UserRole> BY_NAME = new HashMap<>();
+
+    private static final Map<String, UserRole> BY_AUTHORITY = new HashMap<>();
+
+    private static final AuthoritySet[] SETS = new AuthoritySet[1 << ROLES.length];
+
+    static {
+        for (UserRole role : ROLES) {
+            BY_NAME.put(role.name(), role);
+            BY_AUTHORITY.put(ROLE_PREFIX + role.name(), role);
+        }
+        for (int mask = 0; mask < SETS.length; mask++) {
+            List<GrantedAuthority> authorities = new ArrayList<>();
+            for (UserRole role : ROLES) {
+                if ((mask & role.mask()) != 0) {
+                    authorities.add(new SimpleGrantedAuthority(ROLE_PREFIX + role.name()));
+                }
+            }
+            SETS[mask] = new AuthoritySet(mask, List.copyOf(authorities));
+        }
+    }
+
+    private RoleAuthorities() {
+    }
+
+    /**
+     * @param mask Role bits, unknown bits are ignored
+     * @return Shared authority set for the mask
+     */
+    public static Collection<GrantedAuthority> of(int mask) {
+        return SETS[mask & (SETS.length - 1)];
+    }
+
+    /**
+     * @param roleNames Role names without prefix, as stored in the token claims. Unknown names are ignored.
+     * @return Role bits
+     */
+    public static int maskOfNames(Collection<?> roleNames) {
+        int mask = 0;
+        for (Object name : roleNames) {
+            UserRole role = BY_NAME.get(String.valueOf(name));
+            if (role != null) {
+                mask |= role.mask();
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * @param authorities Authorities of a user, either {@link UserRole} values or authorities named after them with
+     *                    or without the {@code ROLE_} prefix. Other authorities are ignored.
+     * @return Role bits
+     */
+    public static int maskOfGranted(Collection<? extends GrantedAuthority> authorities) {
+        int mask = 0;
+        for (GrantedAuthority authority : authorities) {
+            if (authority instanceof UserRole role) {
+                mask |= role.mask();
+                continue;
+            }
+            UserRole role = BY_NAME.get(authority.getAuthority());
+            if (role == null) {
+                role = BY_AUTHORITY.get(authority.getAuthority());
+            }
+            if (role != null) {
+                mask |= role.mask();
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Role bits of an authentication, following the {@code hasRole} convention: only {@code ROLE_}-prefixed
+     * authorities count.
+     *
+     * @param authentication Current authentication, may be null
+     * @return Role bits
+     */
+    public static int maskOf(Authentication authentication) {
+        if (authentication == null) {
+            return 0;
+        }
+        if (authentication instanceof RoleMaskAuthenticationToken token) {
+            return token.getRoleMask();
+        }
+        Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
+        if (authorities instanceof AuthoritySet authoritySet) {
+            return authoritySet.mask;
+        }
+        int mask = 0;
+        for (GrantedAuthority authority : authorities) {
+            UserRole role = BY_AUTHORITY.get(authority.getAuthority());
+            if (role != null) {
+                mask |= role.mask();
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * @param roleNames Role names without prefix
+     * @return Role bits
+     */
+    public static int maskOf(String... roleNames) {
+        int mask = 0;
+        for (String name : roleNames) {
+            UserRole role = BY_NAME.get(name);
+            if (role == null) {
+                throw new IllegalArgumentException("Unknown role " + name);
+            }
+            mask |= role.mask();
+        }
+        return mask;
+    }
+
+    private static final class AuthoritySet extends AbstractCollection<GrantedAuthority> implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final int mask;
+
+        private final List<GrantedAuthority> authorities;
+
+        private AuthoritySet(int mask, List<GrantedAuthority> authorities) {
+            this.mask = mask;
+            this.authorities = authorities;
+        }
+
+        @Override
+        public Iterator<GrantedAuthority> iterator() {
+            return authorities.iterator();
+        }
+
+        @Override
+        public int size() {
+            return authorities.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof GrantedAuthority authority)) {
+                return false;
+            }
+            UserRole role = BY_AUTHORITY.get(authority.getAuthority());
+            return role != null && (mask & role.mask()) != 0;
+        }
+
+        @Serial
+        private Object readResolve() {
+            return SETS[mask];
+        }
+
+    }
+
+}
@@ -0,0 +1,50 @@
+package org.example.service.security;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.io.Serial;
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Authenticated token backed by role bits. {@link #getAuthorities()} returns the shared set from
+ * {@link RoleAuthorities} instead of the per-instance copy kept by the parent class.
+ */
+public class RoleMaskAuthenticationToken extends UsernamePasswordAuthenticationToken {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final int roleMask;
+
+    public RoleMaskAuthenticationToken(Object principal, int roleMask) {
+        super(principal, null, AuthorityUtils.NO_AUTHORITIES);
+        this.roleMask = roleMask;
+    }
+
+    public int getRoleMask() {
+        return roleMask;
+    }
+
+    @Override
+    public Collection<GrantedAuthority> getAuthorities() {
+        return RoleAuthorities.of(roleMask);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof RoleMaskAuthenticationToken other)) {
+            return false;
+        }
+        return roleMask == other.roleMask && isAuthenticated() == other.isAuthenticated()
+          && Objects.equals(getPrincipal(), other.getPrincipal()) && Objects.equals(getDetails(), other.getDetails());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getPrincipal(), roleMask);
+    }
+
+}
@@ -0,0 +1,292 @@
+package org.example.service.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asymmetric signing keys indexed by {@code kid}. New tokens are signed with the active key; retired keys stay
+ * published and verifiable until every token they signed has expired, i.e. for the refresh token ttl.
+ * <p>
+ * The ring is replaced as a whole on rotation, so readers see one consistent snapshot: a hash lookup by kid for
+ * verification, and the serialised JWK set with its ETag for the JWKS endpoint.
+ * <p>
+ * Keys are loaded from the PKCS#12 keystore {@code app.signing.keystore}, shared by every instance so they all
+ * sign with the same active key and verify each other's tokens. The entry named by {@code app.signing.activeAlias}
+ * is the active key, the others stay published; a keystore with a single entry needs no alias. Instances reload the
+ * keystore on their own schedule, so a new key must not sign tokens before all of them publish it. Rotate by adding
+ * the new entry to the keystore, then, once every instance has reloaded it, i.e. after {@code rotationMinutes},
+ * point {@code activeAlias} at it. Remove retired entries once the refresh token ttl has passed. The kid is the JWK
+ * thumbprint of the public key, the same on every instance.
+ * <p>
+ * Without a keystore the keys are generated in memory, which only suits a single instance: its tokens are not
+ * verifiable by other instances and become invalid on restart. With algorithm {@code HS256} the ring is disabled and
+ * tokens keep being signed with the shared {@code app.secretKey}.
+ */
+@Component
+@Slf4j
+public class SigningKeyRing {
+
+    public static final String HS256 = "HS256";
+
+    private final ObjectMapper objectMapper;
+
+    private final String algorithm;
+
+    private final Path keystore;
+
+    private final char[] keystorePassword;
+
+    private final String activeAlias;
+
+    private final long retentionMillis;
+
+    private volatile Snapshot snapshot;
+
+    public SigningKeyRing(ObjectMapper objectMapper,
+                          @Value("${app.signing.algorithm:HS256}") String algorithm,
+                          @Value("${app.signing.keystore:}") String keystore,
+                          @Value("${app.signing.keystorePassword:}") String keystorePassword,
+                          @Value("${app.signing.activeAlias:}") String activeAlias,
+                          @Value("${app.refreshTtl:10080}") long refreshTtl) {
+        this.objectMapper = objectMapper;
+        this.algorithm = algorithm;
+        this.keystore = StringUtils.isBlank(keystore) ? null : Path.of(keystore);
+        this.keystorePassword = keystorePassword.toCharArray();
+        this.activeAlias = StringUtils.trimToNull(activeAlias);
+        this.retentionMillis = TimeUnit.MINUTES.toMillis(refreshTtl);
+        byte[] empty = serialize(List.of());
+        this.snapshot = new Snapshot(null, Map.of(), List.of(), empty, etag(empty));
+        if (!isEnabled()) {
+            return;
+        }
+        if (this.keystore == null) {
+            log.warn("No signing keystore configured, {} keys are generated in memory and only valid on this "
+              + "instance until it restarts", algorithm);
+            rotate();
+        } else {
+            load();
+        }
+    }
+
+    public boolean isEnabled() {
+        return !HS256.equals(algorithm);
+    }
+
+    /**
+     * @return Key to sign new tokens with, null when the ring is disabled
+     */
+    public SigningKey activeKey() {
+        return snapshot.active();
+    }
+
+    /**
+     * @param kid Key id from the token header
+     * @return Verification key or null if the kid is unknown or retired
+     */
+    public PublicKey verificationKey(String kid) {
+        return snapshot.verificationKeys().get(kid);
+    }
+
+    /**
+     * @return Serialised JWK set of the published keys
+     */
+    public byte[] jwks() {
+        return snapshot.jwks();
+    }
+
+    /**
+     * @return Strong ETag of {@link #jwks()}
+     */
+    public String jwksETag() {
+        return snapshot.etag();
+    }
+
+    /**
+     * Reload the keystore, or generate a new active key without one.
+     */
+    @Scheduled(fixedDelayString = "${app.signing.rotationMinutes:1440}",
+      initialDelayString = "${app.signing.rotationMinutes:1440}", timeUnit = TimeUnit.MINUTES)
+    public synchronized void rotate() {
+        if (!isEnabled()) {
+            return;
+        }
+        if (keystore != null) {
+            try {
+                load();
+            } catch (IllegalStateException e) {
+                log.warn("Failed to reload signing keystore {}, keep the current keys", keystore, e);
+            }
+            return;
+        }
+        long now = System.currentTimeMillis();
+        KeyPair keyPair = generateKeyPair(algorithm);
+        PublicJwk<?> jwk = Jwks.builder().key(keyPair.getPublic())
+          .algorithm(algorithm)
+          .publicKeyUse("sig")
+          .idFromThumbprint()
+          .build();
+        SigningKey active = new SigningKey(jwk.getId(), keyPair.getPrivate());
+
+        List<PublishedKey> published = new ArrayList<>();
+        published.add(new PublishedKey(jwk, keyPair.getPublic(), Long.MAX_VALUE));
+        for (PublishedKey previous : snapshot.published()) {
+            long retiredAt = previous.retiredAt() == Long.MAX_VALUE ? now : previous.retiredAt();
+            if (retiredAt + retentionMillis > now) {
+                published.add(new PublishedKey(previous.jwk(), previous.publicKey(), retiredAt));
+            }
+        }
+
+        publish(active, published);
+        log.info("Rotate {} signing key, active kid {}, {} keys published", algorithm, active.kid(), published.size());
+    }
+
+    /**
+     * Publish every key entry of the keystore, the active one first and the others by alias, so every instance
+     * serves the same JWK set.
+     */
+    private synchronized void load() {
+        List<KeystoreEntry> entries = new ArrayList<>();
+        try (InputStream in = Files.newInputStream(keystore)) {
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(in, keystorePassword);
+            for (String alias : Collections.list(keyStore.aliases())) {
+                if (keyStore.getKey(alias, keystorePassword) instanceof PrivateKey privateKey) {
+                    PublicKey publicKey = keyStore.getCertificate(alias).getPublicKey();
+                    entries.add(new KeystoreEntry(alias, privateKey, publicKey));
+                }
+            }
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot load signing keystore " + keystore, e);
+        }
+        if (entries.isEmpty()) {
+            throw new IllegalStateException("No signing key in keystore " + keystore);
+        }
+        if (activeAlias == null && entries.size() > 1) {
+            throw new IllegalStateException("Keystore " + keystore + " holds " + entries.size()
+              + " signing keys, name the active one with app.signing.activeAlias");
+        }
+        entries.sort(Comparator.comparing((KeystoreEntry entry) -> !entry.alias().equals(activeAlias))
+          .thenComparing(KeystoreEntry::alias));
+        KeystoreEntry activeEntry = entries.get(0);
+        if (activeAlias != null && !activeEntry.alias().equals(activeAlias)) {
+            throw new IllegalStateException("No signing key with alias " + activeAlias + " in keystore " + keystore);
+        }
+
+        List<PublishedKey> published = new ArrayList<>(entries.size());
+        for (KeystoreEntry entry : entries) {
+            PublicJwk<?> jwk = Jwks.builder().key(entry.publicKey())
+              .algorithm(algorithmOf(entry.publicKey()))
+              .publicKeyUse("sig")
+              .idFromThumbprint()
+              .build();
+            published.add(new PublishedKey(jwk, entry.publicKey(), Long.MAX_VALUE));
+        }
+        SigningKey active = new SigningKey(published.get(0).jwk().getId(), activeEntry.privateKey());
+        SigningKey previous = snapshot.active();
+        publish(active, published);
+        if (previous == null || !previous.kid().equals(active.kid())) {
+            log.info("Load signing keystore {}, active kid {}, {} keys published", keystore, active.kid(),
+              published.size());
+        }
+    }
+
+    private void publish(SigningKey active, List<PublishedKey> published) {
+        Map<String, PublicKey> verificationKeys = new HashMap<>();
+        List<PublicJwk<?>> jwks = new ArrayList<>(published.size());
+        for (PublishedKey key : published) {
+            verificationKeys.put(key.jwk().getId(), key.publicKey());
+            jwks.add(key.jwk());
+        }
+        byte[] json = serialize(jwks);
+        snapshot = new Snapshot(active, Map.copyOf(verificationKeys), List.copyOf(published), json, etag(json));
+    }
+
+    private static String algorithmOf(PublicKey publicKey) {
+        if (publicKey instanceof ECPublicKey ecPublicKey) {
+            // The signature algorithm is bound to the curve, as used by the signer for the private key
+            int fieldSize = ecPublicKey.getParams().getCurve().getField().getFieldSize();
+            return switch (fieldSize) {
+                case 256 -> "ES256";
+                case 384 -> "ES384";
+                case 521 -> "ES512";
+                default -> throw new IllegalStateException("Unsupported EC signing key of " + fieldSize + " bits");
+            };
+        }
+        return switch (publicKey.getAlgorithm()) {
+            case "RSA" -> "RS256";
+            case "EdDSA", "Ed25519" -> "EdDSA";
+            default -> throw new IllegalStateException("Unsupported signing key type " + publicKey.getAlgorithm());
+        };
+    }
+
+    private static KeyPair generateKeyPair(String algorithm) {
+        return switch (algorithm) {
+            case "RS256" -> Jwts.SIG.RS256.keyPair().build();
+            case "ES256" -> Jwts.SIG.ES256.keyPair().build();
+            case "ES384" -> Jwts.SIG.ES384.keyPair().build();
+            case "ES512" -> Jwts.SIG.ES512.keyPair().build();
+            case "EdDSA" -> Jwks.CRV.Ed25519.keyPair().build();
+            default -> throw new IllegalStateException("Unsupported signing algorithm " + algorithm);
+        };
+    }
+
+    private byte[] serialize(List<PublicJwk<?>> jwks) {
+        try {
+            return objectMapper.writeValueAsBytes(Map.of("keys", jwks));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialise JWK set", e);
+        }
+    }
+
+    private static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public record SigningKey(String kid, PrivateKey privateKey) {
+    }
+
+    private record PublishedKey(PublicJwk<?> jwk, PublicKey publicKey, long retiredAt) {
+    }
+
+    private record KeystoreEntry(String alias, PrivateKey privateKey, PublicKey publicKey) {
+    }
+
+    private record Snapshot(SigningKey active, Map<String, PublicKey> verificationKeys, List<PublishedKey> published,
+                            byte[] jwks, String etag) {
+    }
+
+}
@@ -0,0 +1,59 @@
+package org.example.service.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * JSON responses whose body never changes, serialised once at registration. Writing one sets the status and
+ * {@code Content-Length} and copies the bytes to the output stream, without touching the object mapper.
+ */
+public class StaticJsonResponses {
+
+    public enum Key {
+        NOT_AUTHENTICATED,
+        ACCESS_DENIED,
+        LOGIN_FAILED,
+        LOGIN_RATE_LIMITED,
+        PASSWORD_HASHING_SATURATED
+    }
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<Key, Response> responses = new EnumMap<>(Key.class);
+
+    public StaticJsonResponses(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public StaticJsonResponses register(Key key, HttpStatus status, Object body) {
+        try {
+            responses.put(key, new Response(status.value(), objectMapper.writeValueAsBytes(body)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialise static response " + key, e);
+        }
+        return this;
+    }
+
+    public void write(Key key, HttpServletResponse response) throws IOException {
+        Response registered = responses.get(key);
+        if (registered == null) {
+            throw new IllegalStateException("No static response registered for " + key);
+        }
+        response.setStatus(registered.status());
+        response.setContentType(APPLICATION_JSON_VALUE);
+        response.setContentLength(registered.body().length);
+        response.getOutputStream().write(registered.body());
+    }
+
+    private record Response(int status, byte[] body) {
+    }
+
+}
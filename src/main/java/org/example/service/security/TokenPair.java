@@ -0,0 +1,4 @@
+package org.example.service.security;
+
+public record TokenPair(String accessToken, String refreshToken) {
+}
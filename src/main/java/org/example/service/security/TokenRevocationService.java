@@ -0,0 +1,301 @@
+package org.example.service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.entity.RevokedSubject;
+import org.example.entity.RevokedToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Revocation of access tokens by token id ({@code jti}) and of every token of a subject issued up to a point in
+ * time.
+ * <p>
+ * Every bearer request asks {@link #isRevoked(String, String, long)}, so revocations are first recorded in Bloom
+ * filters which answer "definitely not revoked" with a few bit reads and no allocation. Only a filter hit consults
+ * the exact revocation entries. The filters are split into time segments by the expiry of what they hold: once a
+ * segment's window has passed, every token in it has expired and the segment is skipped, then recycled for a later
+ * window. The filters therefore shed revocations as tokens expire instead of growing until a full rebuild.
+ * <p>
+ * Revocations made on this node are written through to the {@link RevocationStore} and reloaded from it at startup.
+ * Callers publish them on the {@link org.example.service.invalidation.InvalidationBus}, and the other nodes only
+ * record them in memory with the {@code record...} methods.
+ * <p>
+ * A subject revocation is compared with the issue time of the token in epoch millis, see
+ * {@link JwtTokenProvider}, so a token issued right after the revocation is accepted.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    private static final int HASHES = 4;
+
+    private static final int SECOND_HASH_SEED = 0x9E3779B9;
+
+    private final RevocationStore revocationStore;
+
+    private final long ttlMillis;
+
+    private final long segmentMillis;
+
+    private final int bitMask;
+
+    private final AtomicReferenceArray<Segment> segments;
+
+    /**
+     * Revoked token ids, kept until the token expires.
+     */
+    private final Cache<String, Long> revokedTokenIds;
+
+    /**
+     * Revocation time per subject, kept until the last token issued before it expires.
+     */
+    private final Cache<String, Long> revokedSubjects;
+
+    public TokenRevocationService(RevocationStore revocationStore,
+                                  @Value("${app.ttl}") long ttl,
+                                  @Value("${app.revocation.segmentMinutes:5}") long segmentMinutes,
+                                  @Value("${app.revocation.bitsPerSegment:1048576}") int bitsPerSegment) {
+        this.revocationStore = revocationStore;
+        this.ttlMillis = TimeUnit.MINUTES.toMillis(ttl);
+        this.segmentMillis = TimeUnit.MINUTES.toMillis(Math.max(1, segmentMinutes));
+        int bits = Integer.highestOneBit(Math.max(Long.SIZE, bitsPerSegment));
+        this.bitMask = bits - 1;
+        // Enough segments for every window up to one ttl ahead, plus the current one
+        int segmentCount = (int) ((ttlMillis + segmentMillis - 1) / segmentMillis) + 2;
+        this.segments = new AtomicReferenceArray<>(segmentCount);
+        this.revokedTokenIds = Caffeine.newBuilder().expireAfter(new UntilExpiry(0)).build();
+        this.revokedSubjects = Caffeine.newBuilder().expireAfter(new UntilExpiry(ttlMillis)).build();
+        log.debug("Init token revocation with {} segments of {} bits", segmentCount, bits);
+    }
+
+    /**
+     * Record the revocations of the store which have not expired yet, at startup or after missing invalidations of
+     * other nodes.
+     */
+    @PostConstruct
+    public void load() {
+        long now = System.currentTimeMillis();
+        List<RevokedToken> tokens = revocationStore.findActiveTokens(now);
+        tokens.forEach(token -> recordTokenRevocation(token.getTokenId(), token.getExpiresAt()));
+        List<RevokedSubject> subjects = revocationStore.findActiveSubjects(now);
+        subjects.forEach(subject -> recordSubjectRevocation(subject.getSubject(), subject.getRevokedAt()));
+        log.debug("Load {} token and {} subject revocations", tokens.size(), subjects.size());
+    }
+
+    /**
+     * @param tokenId  Token id, may be null for tokens issued without one
+     * @param subject  Token subject
+     * @param issuedAt Token issue time in epoch millis
+     * @return Whether the token or its subject was revoked
+     */
+    public boolean isRevoked(String tokenId, String subject, long issuedAt) {
+        long now = System.currentTimeMillis();
+        if (tokenId != null && mightContain(tokenId, now) && revokedTokenIds.getIfPresent(tokenId) != null) {
+            return true;
+        }
+        if (subject != null && mightContain(subject, now)) {
+            Long revokedAt = revokedSubjects.getIfPresent(subject);
+            return revokedAt != null && issuedAt <= revokedAt;
+        }
+        return false;
+    }
+
+    /**
+     * Revoke a single token until it expires.
+     *
+     * @param tokenId   Token id
+     * @param expiresAt Token expiry in epoch millis
+     */
+    public void revokeToken(String tokenId, long expiresAt) {
+        if (recordTokenRevocation(tokenId, expiresAt)) {
+            revocationStore.saveToken(tokenId, expiresAt);
+        }
+    }
+
+    /**
+     * Record a single token revocation without storing it, e.g. one made on another node.
+     *
+     * @return Whether the token has not expired yet
+     */
+    public boolean recordTokenRevocation(String tokenId, long expiresAt) {
+        if (expiresAt <= System.currentTimeMillis()) {
+            return false;
+        }
+        revokedTokenIds.put(tokenId, expiresAt);
+        add(tokenId, expiresAt);
+        log.debug("Revoke token {}", tokenId);
+        return true;
+    }
+
+    /**
+     * Revoke every token issued to the subject until now. Tokens issued afterwards stay valid. The revocation is
+     * stored in the transaction of the caller and only takes effect in memory once that commits.
+     *
+     * @param subject Token subject
+     * @return Revocation time in epoch millis
+     */
+    public long revokeSubject(String subject) {
+        long now = System.currentTimeMillis();
+        revocationStore.saveSubject(subject, now, now + ttlMillis);
+        afterCommit(() -> recordSubjectRevocation(subject, now));
+        return now;
+    }
+
+    /**
+     * Record a revocation of every token issued to the subject up to the given time without storing it, e.g. one
+     * made on another node.
+     *
+     * @param subject   Token subject
+     * @param revokedAt Revocation time in epoch millis
+     */
+    public void recordSubjectRevocation(String subject, long revokedAt) {
+        revokedSubjects.asMap().merge(subject, revokedAt, Math::max);
+        add(subject, revokedAt + ttlMillis);
+        log.debug("Revoke tokens of subject {}", subject);
+    }
+
+    /**
+     * Lift the revocation of the subject, e.g. when the user is enabled again. The tokens issued before the
+     * revocation which have not expired yet are accepted again, once the transaction of the caller commits.
+     *
+     * @param subject Token subject
+     * @return Time the revocation was lifted in epoch millis
+     */
+    public long restoreSubject(String subject) {
+        long now = System.currentTimeMillis();
+        revocationStore.deleteSubject(subject);
+        afterCommit(() -> recordSubjectRestore(subject, now));
+        return now;
+    }
+
+    /**
+     * Record that the revocation of the subject was lifted at the given time without storing it. A revocation
+     * made after that time stays.
+     *
+     * @param subject    Token subject
+     * @param restoredAt Time the revocation was lifted in epoch millis
+     */
+    public void recordSubjectRestore(String subject, long restoredAt) {
+        revokedSubjects.asMap().computeIfPresent(subject, (key, revokedAt) -> revokedAt <= restoredAt ? null : revokedAt);
+        log.debug("Restore tokens of subject {}", subject);
+    }
+
+    /**
+     * Run the task after the transaction of the caller commits, or right away without one. A rolled back soft delete
+     * or enable then leaves the revocations in memory untouched.
+     */
+    private static void afterCommit(Runnable task) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    private void add(String key, long expiresAt) {
+        long window = Math.floorDiv(expiresAt, segmentMillis);
+        int slot = (int) Math.floorMod(window, (long) segments.length());
+        Segment segment = segments.get(slot);
+        while (segment == null || segment.window < window) {
+            Segment fresh = new Segment(window, new AtomicLongArray((bitMask + 1) / Long.SIZE));
+            if (segments.compareAndSet(slot, segment, fresh)) {
+                segment = fresh;
+            } else {
+                segment = segments.get(slot);
+            }
+        }
+        if (segment.window != window) {
+            // The slot already moved on to a later window, so this entry has expired
+            return;
+        }
+
+        int h1 = spread(key.hashCode());
+        int h2 = spread(h1 ^ SECOND_HASH_SEED) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (h1 + i * h2) & bitMask;
+            segment.bits.accumulateAndGet(bit >>> 6, 1L << bit, (word, mask) -> word | mask);
+        }
+    }
+
+    private boolean mightContain(String key, long now) {
+        long currentWindow = Math.floorDiv(now, segmentMillis);
+        int h1 = spread(key.hashCode());
+        int h2 = spread(h1 ^ SECOND_HASH_SEED) | 1;
+        for (int s = 0; s < segments.length(); s++) {
+            Segment segment = segments.get(s);
+            if (segment == null || segment.window < currentWindow) {
+                continue;
+            }
+            if (segment.contains(h1, h2, bitMask)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Bloom filter for the revocations expiring within one window of {@code segmentMillis}.
+     */
+    private record Segment(long window, AtomicLongArray bits) {
+
+        boolean contains(int h1, int h2, int bitMask) {
+            for (int i = 0; i < HASHES; i++) {
+                int bit = (h1 + i * h2) & bitMask;
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+    /**
+     * Expires an entry {@code offsetMillis} after the epoch millis it holds.
+     */
+    private record UntilExpiry(long offsetMillis) implements Expiry<String, Long> {
+
+        @Override
+        public long expireAfterCreate(String key, Long value, long currentTime) {
+            long remainingMillis = value + offsetMillis - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Long value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Long value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+    }
+
+}
@@ -0,0 +1,29 @@
+package org.example.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The password must not appear in the breached password corpus. Null is valid.
+ *
+ * @see org.example.service.security.BreachedPasswordCorpus
+ */
+@Documented
+@Constraint(validatedBy = NotBreachedValidator.class)
+@Target({ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER, ElementType.ANNOTATION_TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface NotBreached {
+
+    String message() default "The password appeared in a data breach, please choose another one";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+
+}
@@ -0,0 +1,21 @@
+package org.example.validation;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import lombok.RequiredArgsConstructor;
+import org.example.service.security.BreachedPasswordCorpus;
+
+/**
+ * Created by the Spring validator factory, which injects the corpus.
+ */
+@RequiredArgsConstructor
+public class NotBreachedValidator implements ConstraintValidator<NotBreached, String> {
+
+    private final BreachedPasswordCorpus breachedPasswordCorpus;
+
+    @Override
+    public boolean isValid(String value, ConstraintValidatorContext context) {
+        return value == null || !breachedPasswordCorpus.isBreached(value);
+    }
+
+}
@@ -0,0 +1,70 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.util.DatabaseCleaner;
+import org.example.util.UserTestDataFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Base of the integration tests sharing one cached application context. Subclasses must not change the context
+ * configuration, e.g. with properties or {@code @MockBean}, or they get a context of their own. Data is reset by
+ * truncating every table before each test.
+ * <p>
+ * Login rate limiting is disabled because every MockMvc request comes from the same address, and passwords are
+ * hashed at the lowest BCrypt cost. The scheduled roles backfill is off, tests run it explicitly. The breached
+ * password corpus is a file under {@code build} which tests write and refresh themselves, and leave empty.
+ */
+@SpringBootTest(properties = {
+  "spring.jpa.show-sql=false",
+  "spring.jpa.properties.hibernate.generate_statistics=true",
+  "app.loginRateLimit.enabled=false",
+  "app.password.minStrength=4",
+  "app.password.maxStrength=4",
+  "app.userRoles.backfill.enabled=false",
+  "app.breachedPasswords.file=build/breached-passwords-test.sha1"
+})
+@AutoConfigureMockMvc
+public abstract class AbstractIntegrationTest {
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected UserTestDataFactory userTestDataFactory;
+
+    @Autowired
+    private DatabaseCleaner databaseCleaner;
+
+    protected final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    public void resetData() {
+        databaseCleaner.clean();
+    }
+
+    /**
+     * Log in with {@link UserTestDataFactory#PASSWORD}.
+     *
+     * @return Body of the login response, holding the access and the refresh token
+     */
+    protected JsonNode login(String username) throws Exception {
+        Map<String, String> credentials = Map.of("username", username, "password", UserTestDataFactory.PASSWORD);
+        String loginBody = mockMvc.perform(post("/api/auth").content(objectMapper.writeValueAsString(credentials))
+            .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(loginBody);
+    }
+
+}
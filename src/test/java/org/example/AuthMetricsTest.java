@@ -0,0 +1,39 @@
+package org.example;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class AuthMetricsTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testAuthMetrics_FailedLogin_Counted() throws Exception {
+        double failedBefore = meterRegistry.get("auth.login").tag("outcome", "bad_credentials").counter().count();
+
+        Map<String, String> payload = Map.of("username", "metered", "password", "wrong password");
+        mockMvc.perform(post("/api/auth").content(objectMapper.writeValueAsString(payload))
+            .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isUnauthorized());
+
+        assertThat(meterRegistry.get("auth.login").tag("outcome", "bad_credentials").counter().count())
+          .isEqualTo(failedBefore + 1);
+        mockMvc.perform(get("/actuator/metrics/auth.login").param("tag", "outcome:bad_credentials"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.measurements[0].value").value(failedBefore + 1));
+    }
+
+}
@@ -1,27 +1,16 @@
 package org.example;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.junit.jupiter.api.Test;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
-import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
-import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
-@AutoConfigureMockMvc
-public class AuthenticationTest {
-
-
-    @Autowired
-    private MockMvc mockMvc;
-
-    private final ObjectMapper objectMapper = new ObjectMapper();
+public class AuthenticationTest extends AbstractIntegrationTest {
 
     @Test
     public void testAuthEndpoint_NoPayload_Error() throws Exception {
@@ -37,4 +26,15 @@ public class AuthenticationTest {
           .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    public void testAuthEndpoint_RightPayload_Success() throws Exception {
+        final String username = "loggedIn";
+        userTestDataFactory.createUser(username);
+
+        JsonNode tokens = login(username);
+
+        assertThat(tokens.get("token").asText()).isNotEmpty();
+        assertThat(tokens.get("refreshToken").asText()).isNotEmpty();
+    }
+
 }
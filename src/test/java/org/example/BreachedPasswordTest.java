@@ -0,0 +1,95 @@
+package org.example;
+
+import org.example.api.request.CreateUserReq;
+import org.example.service.security.BreachedPasswordCorpus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class BreachedPasswordTest extends AbstractIntegrationTest {
+
+    private static final Path CORPUS = Path.of("build/breached-passwords-test.sha1");
+
+    @Autowired
+    private BreachedPasswordCorpus breachedPasswordCorpus;
+
+    /**
+     * The corpus belongs to the context shared with the other test classes, whose passwords must keep passing.
+     */
+    @AfterEach
+    public void clearCorpus() throws Exception {
+        compile();
+        breachedPasswordCorpus.refresh();
+        assertThat(breachedPasswordCorpus.size()).isZero();
+    }
+
+    @Test
+    public void testCreateUser_BreachedPassword_Rejected() throws Exception {
+        compile("qwerty123", "P@ssw0rd", "letmein1");
+
+        assertThat(breachedPasswordCorpus.refresh()).isTrue();
+        assertThat(breachedPasswordCorpus.size()).isEqualTo(3);
+        assertThat(breachedPasswordCorpus.isBreached("qwerty123")).isTrue();
+        assertThat(breachedPasswordCorpus.isBreached("letmein1")).isTrue();
+        assertThat(breachedPasswordCorpus.isBreached("xyz789")).isFalse();
+
+        mockMvc.perform(post("/api/users").content(objectMapper.writeValueAsString(request("breached", "qwerty123")))
+            .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/users").content(objectMapper.writeValueAsString(request("unbreached", "xyz789")))
+            .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isCreated());
+    }
+
+    @Test
+    public void testRefresh_SwappedCorpus_Success() throws Exception {
+        compile("qwerty123");
+        breachedPasswordCorpus.refresh();
+        assertThat(breachedPasswordCorpus.isBreached("qwerty123")).isTrue();
+
+        compile("hunter22");
+
+        assertThat(breachedPasswordCorpus.refresh()).isTrue();
+        assertThat(breachedPasswordCorpus.refresh()).isFalse();
+        assertThat(breachedPasswordCorpus.isBreached("qwerty123")).isFalse();
+        assertThat(breachedPasswordCorpus.isBreached("hunter22")).isTrue();
+    }
+
+    /**
+     * Write the passwords in the Pwned Passwords text format and compile it into the corpus of the test context.
+     */
+    private static void compile(String... passwords) throws Exception {
+        MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+        HexFormat hex = HexFormat.of().withUpperCase();
+        List<String> lines = Stream.of(passwords)
+          .map(password -> hex.formatHex(sha1.digest(password.getBytes(StandardCharsets.UTF_8))) + ":42")
+          .sorted()
+          .toList();
+        Path source = Files.createTempFile("breached-passwords", ".txt");
+        try {
+            Files.write(source, lines);
+            assertThat(BreachedPasswordCorpus.compile(source, CORPUS)).isEqualTo(passwords.length);
+        } finally {
+            Files.delete(source);
+        }
+    }
+
+    private static CreateUserReq request(String username, String password) {
+        return new CreateUserReq(username + "@gmail.com", username, password, password, "Breached", "Tester",
+          "District 1", "HCM", "+8412345678");
+    }
+
+}
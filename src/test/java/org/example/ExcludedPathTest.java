@@ -0,0 +1,35 @@
+package org.example;
+
+import org.example.config.security.ExcludedPathMatcher;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExcludedPathTest {
+
+    private final ExcludedPathMatcher excludedPathMatcher = new ExcludedPathMatcher();
+
+    @Test
+    public void testExcludedPath_UnderContextPath_Success() {
+        assertThat(excludedPathMatcher.matches(request("/app", "/api/auth/refresh"))).isTrue();
+    }
+
+    @Test
+    public void testProtectedPath_UnderContextPath_NotExcluded() {
+        assertThat(excludedPathMatcher.matches(request("/app", "/api/users/tester"))).isFalse();
+    }
+
+    @Test
+    public void testProtectedPath_ContextPathLikeExcluded_NotExcluded() {
+        assertThat(excludedPathMatcher.matches(request("/api/auth", "/api/users/tester"))).isFalse();
+    }
+
+    private static MockHttpServletRequest request(String contextPath, String servletPath) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", contextPath + servletPath);
+        request.setContextPath(contextPath);
+        request.setServletPath(servletPath);
+        return request;
+    }
+
+}
@@ -0,0 +1,173 @@
+package org.example;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.service.invalidation.AbstractInvalidationBus;
+import org.example.service.invalidation.InProcessInvalidationBus;
+import org.example.service.invalidation.Invalidation;
+import org.example.service.invalidation.InvalidationHandler;
+import org.example.service.invalidation.TcpInvalidationBus;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InvalidationBusTest {
+
+    private static final long LINGER_MILLIS = 50;
+
+    private static final String SECRET = "invalidation-test-secret";
+
+    @Test
+    public void testTcp_CoalescedBatchWithCatchUp_Success() throws Exception {
+        SimpleMeterRegistry publisherRegistry = new SimpleMeterRegistry();
+        SimpleMeterRegistry subscriberRegistry = new SimpleMeterRegistry();
+        TcpInvalidationBus publisher = new TcpInvalidationBus("publisher", LINGER_MILLIS, 16, publisherRegistry,
+          new InetSocketAddress("127.0.0.1", 0), List.of(), 200, 50, SECRET, 4);
+        // Published before the subscriber connects, replayed from the log of the publisher. Pending before the
+        // publisher starts, so they are flushed as one batch however slow the machine is
+        publisher.publish(Invalidation.user("alice", 1));
+        publisher.publish(Invalidation.subjectRevoked("alice", 10));
+        publisher.publish(Invalidation.user("alice", 1));
+        publisher.publish(Invalidation.subjectRevoked("alice", 20));
+        publisher.start();
+        try {
+
+            RecordingHandler handler = new RecordingHandler();
+            TcpInvalidationBus subscriber = new TcpInvalidationBus("subscriber", LINGER_MILLIS, 16, subscriberRegistry,
+              new InetSocketAddress("127.0.0.1", 0), List.of(new InetSocketAddress("127.0.0.1", publisher.getPort())),
+              200, 50, SECRET, 4);
+            subscriber.subscribe(handler);
+            subscriber.start();
+            try {
+                assertThat(handler.next()).containsExactly(Invalidation.user("alice", 1),
+                  Invalidation.subjectRevoked("alice", 20));
+
+                publisher.publish(Invalidation.tokenRevoked("token", 30));
+                assertThat(handler.next()).containsExactly(Invalidation.tokenRevoked("token", 30));
+            } finally {
+                subscriber.stop();
+            }
+        } finally {
+            publisher.stop();
+        }
+
+        assertThat(publisherRegistry.get("invalidation.coalesced").counter().count()).isEqualTo(2);
+        assertThat(subscriberRegistry.get("invalidation.lag").timer().count()).isEqualTo(2);
+        assertThat(subscriberRegistry.get("invalidation.resets").counter().count()).isZero();
+    }
+
+    @Test
+    public void testTcp_WrongSecret_NothingDelivered() throws Exception {
+        TcpInvalidationBus publisher = new TcpInvalidationBus("publisher", LINGER_MILLIS, 16, new SimpleMeterRegistry(),
+          new InetSocketAddress("127.0.0.1", 0), List.of(), 200, 50, SECRET, 4);
+        publisher.start();
+        try {
+            publisher.publish(Invalidation.subjectRevoked("alice", 10));
+
+            RecordingHandler handler = new RecordingHandler();
+            TcpInvalidationBus subscriber = new TcpInvalidationBus("subscriber", LINGER_MILLIS, 16,
+              new SimpleMeterRegistry(), new InetSocketAddress("127.0.0.1", 0),
+              List.of(new InetSocketAddress("127.0.0.1", publisher.getPort())), 200, 50, "another-secret", 4);
+            subscriber.subscribe(handler);
+            subscriber.start();
+            try {
+                assertThat(handler.batches.poll(1, TimeUnit.SECONDS)).isNull();
+            } finally {
+                subscriber.stop();
+            }
+        } finally {
+            publisher.stop();
+        }
+    }
+
+    @Test
+    public void testTcp_PublisherRestartedWithSameNodeId_Reset() throws Exception {
+        TcpInvalidationBus publisher = new TcpInvalidationBus("publisher", LINGER_MILLIS, 16, new SimpleMeterRegistry(),
+          new InetSocketAddress("127.0.0.1", 0), List.of(), 200, 50, SECRET, 4);
+        publisher.start();
+        int port = publisher.getPort();
+        RecordingHandler handler = new RecordingHandler();
+        TcpInvalidationBus subscriber = new TcpInvalidationBus("subscriber", LINGER_MILLIS, 16,
+          new SimpleMeterRegistry(), new InetSocketAddress("127.0.0.1", 0),
+          List.of(new InetSocketAddress("127.0.0.1", port)), 200, 500, SECRET, 4);
+        subscriber.subscribe(handler);
+        subscriber.start();
+        try {
+            publisher.publish(Invalidation.user("alice", 1));
+            assertThat(handler.next()).containsExactly(Invalidation.user("alice", 1));
+            publisher.publish(Invalidation.user("bob", 2));
+            assertThat(handler.next()).containsExactly(Invalidation.user("bob", 2));
+            publisher.stop();
+
+            // Same node id, sequences start over: published while the subscriber waits to reconnect, the new run
+            // passes the old cursor, yet none of its batches may be skipped
+            publisher = new TcpInvalidationBus("publisher", LINGER_MILLIS, 16, new SimpleMeterRegistry(),
+              new InetSocketAddress("127.0.0.1", port), List.of(), 200, 50, SECRET, 4);
+            publisher.start();
+            List<Invalidation> published = List.of(Invalidation.user("carol", 3), Invalidation.user("dave", 4),
+              Invalidation.user("erin", 5));
+            for (Invalidation invalidation : published) {
+                publisher.publish(invalidation);
+                Thread.sleep(LINGER_MILLIS * 2);
+            }
+            assertThat(handler.next()).isEmpty();
+            for (Invalidation invalidation : published) {
+                assertThat(handler.next()).containsExactly(invalidation);
+            }
+        } finally {
+            subscriber.stop();
+            publisher.stop();
+        }
+    }
+
+    @Test
+    public void testInProcess_Delivered_Success() throws Exception {
+        AbstractInvalidationBus first = new InProcessInvalidationBus("first", LINGER_MILLIS, 16,
+          new SimpleMeterRegistry(), "invalidationBusTest");
+        AbstractInvalidationBus second = new InProcessInvalidationBus("second", LINGER_MILLIS, 16,
+          new SimpleMeterRegistry(), "invalidationBusTest");
+        RecordingHandler firstHandler = new RecordingHandler();
+        RecordingHandler secondHandler = new RecordingHandler();
+        first.subscribe(firstHandler);
+        second.subscribe(secondHandler);
+        first.start();
+        second.start();
+        try {
+            first.publish(Invalidation.user("bob", 2));
+            assertThat(secondHandler.next()).containsExactly(Invalidation.user("bob", 2));
+            // Publishers do not receive their own invalidations
+            assertThat(firstHandler.batches.poll(LINGER_MILLIS * 4, TimeUnit.MILLISECONDS)).isNull();
+        } finally {
+            first.stop();
+            second.stop();
+        }
+    }
+
+    private static class RecordingHandler implements InvalidationHandler {
+
+        private final BlockingQueue<List<Invalidation>> batches = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onInvalidations(List<Invalidation> invalidations) {
+            batches.add(invalidations);
+        }
+
+        @Override
+        public void onReset() {
+            batches.add(List.of());
+        }
+
+        List<Invalidation> next() throws InterruptedException {
+            List<Invalidation> batch = batches.poll(5, TimeUnit.SECONDS);
+            assertThat(batch).isNotNull();
+            return batch;
+        }
+
+    }
+
+}
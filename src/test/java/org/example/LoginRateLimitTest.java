@@ -0,0 +1,68 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.util.UserTestDataFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"app.loginRateLimit.username.burst=2", "app.loginRateLimit.username.perMinute=1"})
+@AutoConfigureMockMvc
+public class LoginRateLimitTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserTestDataFactory userTestDataFactory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testAuthEndpoint_TooManyAttempts_Error() throws Exception {
+        final String username = "stuffed";
+        userTestDataFactory.createUser(username);
+
+        String wrongPassword = objectMapper.writeValueAsString(Map.of("username", username, "password", "wrong-password"));
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/auth").content(wrongPassword).contentType(MediaType.APPLICATION_JSON))
+              .andExpect(status().isUnauthorized());
+        }
+
+        // Even the right password is rejected until the bucket refills
+        String rightPassword = objectMapper.writeValueAsString(Map.of("username", username, "password", UserTestDataFactory.PASSWORD));
+        mockMvc.perform(post("/api/auth").content(rightPassword).contentType(MediaType.APPLICATION_JSON))
+          .andExpect(status().isTooManyRequests())
+          .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+          .andExpect(jsonPath("$.error").value(true));
+    }
+
+    @Test
+    public void testAuthEndpoint_SuccessfulLoginsNotCharged_Success() throws Exception {
+        final String username = "owner";
+        userTestDataFactory.createUser(username);
+
+        String rightPassword = objectMapper.writeValueAsString(Map.of("username", username, "password", UserTestDataFactory.PASSWORD));
+        for (int i = 0; i < 4; i++) {
+            mockMvc.perform(post("/api/auth").content(rightPassword).contentType(MediaType.APPLICATION_JSON))
+              .andExpect(status().isOk());
+        }
+
+        // The attempts of the username are all left for a wrong password
+        String wrongPassword = objectMapper.writeValueAsString(Map.of("username", username, "password", "wrong-password"));
+        mockMvc.perform(post("/api/auth").content(wrongPassword).contentType(MediaType.APPLICATION_JSON))
+          .andExpect(status().isUnauthorized());
+    }
+
+}
@@ -0,0 +1,44 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class RefreshTokenTest extends AbstractIntegrationTest {
+
+    @Test
+    public void testRefreshEndpoint_RotateAndReuse_Error() throws Exception {
+        final String username = "refresher";
+        userTestDataFactory.createUser(username);
+        String refreshToken = login(username).get("refreshToken").asText();
+
+        String refreshBody = refresh(refreshToken)
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.token").isNotEmpty())
+          .andExpect(jsonPath("$.refreshToken").isNotEmpty())
+          .andReturn().getResponse().getContentAsString();
+        String rotated = objectMapper.readTree(refreshBody).get("refreshToken").asText();
+
+        // Replaying the first refresh token revokes the whole family
+        refresh(refreshToken).andExpect(status().isUnauthorized());
+        refresh(rotated).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void testRefreshEndpoint_UnknownToken_Error() throws Exception {
+        refresh("not-a-refresh-token").andExpect(status().isUnauthorized());
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/api/auth/refresh")
+          .content(objectMapper.writeValueAsString(Map.of("refreshToken", refreshToken)))
+          .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON));
+    }
+
+}
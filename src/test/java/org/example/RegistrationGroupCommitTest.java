@@ -0,0 +1,121 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.api.request.CreateUserReq;
+import org.example.converter.UserConverter;
+import org.example.entity.User;
+import org.example.repository.UserRepository;
+import org.example.service.RegistrationBatcher;
+import org.example.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest(properties = {
+  "spring.jpa.show-sql=false",
+  "app.password.minStrength=4",
+  "app.password.maxStrength=4",
+  "app.userRoles.backfill.enabled=false",
+  "app.registration.groupCommit.enabled=true",
+  "app.registration.groupCommit.maxWaitMillis=100"
+})
+@AutoConfigureMockMvc
+public class RegistrationGroupCommitTest {
+
+    private static final int USERS = 8;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserConverter userConverter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testConcurrentRegistrations_GroupCommitted_Success() throws Exception {
+        List<CreateUserReq> requests = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            requests.add(request("grouped" + i, "grouped" + i + "@gmail.com"));
+        }
+        // Same username as the first registration, only one of the two may win
+        requests.add(request("grouped0", "duplicate@gmail.com"));
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(requests.size());
+        try {
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (CreateUserReq request : requests) {
+                String body = objectMapper.writeValueAsString(request);
+                statuses.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(post("/api/users").content(body)
+                        .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+                      .andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+
+            List<Integer> results = new ArrayList<>();
+            for (Future<Integer> status : statuses) {
+                results.add(status.get());
+            }
+            assertThat(results).filteredOn(status -> status == 201).hasSize(USERS);
+            assertThat(results).filteredOn(status -> status == 422).hasSize(1);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(userRepository.findExistingUsernames(List.of("grouped0", "grouped7"))).hasSize(2);
+        DistributionSummary batchSizes = meterRegistry.get("registration.batch.size").summary();
+        assertThat(batchSizes.totalAmount()).isEqualTo(requests.size());
+        assertThat(batchSizes.count()).isLessThan(requests.size());
+    }
+
+    @Test
+    public void testShutdown_RegistrationSavedDirectly_Success() {
+        // A batcher of its own, stopping the one of the context would affect the other tests
+        RegistrationBatcher batcher = new RegistrationBatcher(userService, userRepository, transactionManager,
+          meterRegistry, true, 32, 100, 1024, 1000);
+        batcher.shutdown();
+
+        User saved = batcher.save(userConverter.toEntity(request("stopped", "stopped@gmail.com")));
+
+        assertThat(saved.getId()).isNotNull();
+        assertThat(userRepository.findExistingUsernames(List.of("stopped"))).containsExactly("stopped");
+    }
+
+    private static CreateUserReq request(String username, String email) {
+        return new CreateUserReq(email, username, "xyz789", "xyz789", "Grouped", "Tester", "District 1", "HCM",
+          "+8412345678");
+    }
+
+}
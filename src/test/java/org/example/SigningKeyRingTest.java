@@ -0,0 +1,139 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import org.example.service.security.SigningKeyRing;
+import org.example.util.UserTestDataFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tokens signed with the keys of the test keystore, which holds the P-256 entries "signing-1" and the active
+ * "signing-2", and the P-384 entry "signing-3".
+ */
+@SpringBootTest(properties = {
+  "spring.jpa.show-sql=false",
+  "app.loginRateLimit.enabled=false",
+  "app.password.minStrength=4",
+  "app.password.maxStrength=4",
+  "app.userRoles.backfill.enabled=false",
+  "app.signing.algorithm=ES256",
+  "app.signing.keystore=" + SigningKeyRingTest.KEYSTORE,
+  "app.signing.keystorePassword=" + SigningKeyRingTest.KEYSTORE_PASSWORD,
+  "app.signing.activeAlias=" + SigningKeyRingTest.ACTIVE_ALIAS
+})
+@AutoConfigureMockMvc
+public class SigningKeyRingTest {
+
+    static final String KEYSTORE = "src/test/resources/signing-test.p12";
+
+    static final String KEYSTORE_PASSWORD = "changeit";
+
+    static final String ACTIVE_ALIAS = "signing-2";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserTestDataFactory userTestDataFactory;
+
+    @Autowired
+    private SigningKeyRing signingKeyRing;
+
+    @Value("${app.secretKey}")
+    private String secretKey;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testJwksEndpoint_TokenKeyPublished_Success() throws Exception {
+        final String username = "verifier";
+        userTestDataFactory.createUser(username);
+
+        Map<String, String> credentials = Map.of("username", username, "password", UserTestDataFactory.PASSWORD);
+        String loginBody = mockMvc.perform(post("/api/auth").content(objectMapper.writeValueAsString(credentials))
+            .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andReturn().getResponse().getContentAsString();
+        String token = objectMapper.readTree(loginBody).get("token").asText();
+        JsonNode header = objectMapper.readTree(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+
+        String etag = mockMvc.perform(get("/.well-known/jwks.json"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.keys.length()").value(3))
+          .andExpect(jsonPath("$.keys[0].kid").value(header.get("kid").asText()))
+          .andExpect(jsonPath("$.keys[0].alg").value("ES256"))
+          .andExpect(jsonPath("$.keys[?(@.crv == 'P-384')].alg").value("ES384"))
+          .andExpect(jsonPath("$.keys[0].d").doesNotExist())
+          .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/.well-known/jwks.json").header(HttpHeaders.IF_NONE_MATCH, etag))
+          .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/users/{username}", username).header("Authorization", "Bearer " + token))
+          .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testKeystore_SameKeysOnEveryInstance_Success() {
+        SigningKeyRing otherInstance = new SigningKeyRing(objectMapper, "ES256", KEYSTORE, KEYSTORE_PASSWORD,
+          ACTIVE_ALIAS, 10080);
+
+        assertThat(otherInstance.activeKey().kid()).isEqualTo(signingKeyRing.activeKey().kid());
+        assertThat(otherInstance.jwksETag()).isEqualTo(signingKeyRing.jwksETag());
+        // Reloading the unchanged keystore keeps the active key
+        otherInstance.rotate();
+        assertThat(otherInstance.activeKey().kid()).isEqualTo(signingKeyRing.activeKey().kid());
+    }
+
+    @Test
+    public void testKeystore_OtherActiveAlias_SamePublishedKeys() {
+        SigningKeyRing otherInstance = new SigningKeyRing(objectMapper, "ES256", KEYSTORE, KEYSTORE_PASSWORD,
+          "signing-1", 10080);
+
+        assertThat(otherInstance.activeKey().kid()).isNotEqualTo(signingKeyRing.activeKey().kid());
+        assertThat(otherInstance.verificationKey(signingKeyRing.activeKey().kid())).isNotNull();
+        assertThat(signingKeyRing.verificationKey(otherInstance.activeKey().kid())).isNotNull();
+    }
+
+    @Test
+    public void testKeystore_NoActiveAlias_Error() {
+        assertThatThrownBy(() -> new SigningKeyRing(objectMapper, "ES256", KEYSTORE, KEYSTORE_PASSWORD, "", 10080))
+          .isInstanceOf(IllegalStateException.class)
+          .hasMessageContaining("app.signing.activeAlias");
+    }
+
+    @Test
+    public void testLegacyHs256Token_NotAccepted_Error() throws Exception {
+        String legacyToken = Jwts.builder().claim("authorities", List.of("MOD"))
+          .subject("legacy-moderator")
+          .issuedAt(new Date())
+          .expiration(new Date(System.currentTimeMillis() + 60_000))
+          .signWith(new SecretKeySpec(secretKey.getBytes(), "HmacSHA256"))
+          .compact();
+
+        mockMvc.perform(get("/api/users/{username}", "someone-else")
+            .header("Authorization", "Bearer " + legacyToken))
+          .andExpect(status().isUnauthorized());
+    }
+
+}
@@ -0,0 +1,53 @@
+package org.example;
+
+import io.jsonwebtoken.Jwts;
+import org.example.entity.UserRole;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Date;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Access tokens in every format a node may have issued are accepted. A moderator may look up another user, which
+ * is not found, whereas a plain user would be denied.
+ */
+public class TokenFormatTest extends AbstractIntegrationTest {
+
+    @Value("${app.secretKey}")
+    private String secretKey;
+
+    @Test
+    public void testLegacyToken_AuthoritiesClaim_Success() throws Exception {
+        // Token in the format issued before the compact role bitmask
+        String legacyToken = Jwts.builder().claim("authorities", List.of("MOD"))
+          .subject("legacy-moderator")
+          .issuedAt(new Date())
+          .expiration(new Date(System.currentTimeMillis() + 60_000))
+          .signWith(new SecretKeySpec(secretKey.getBytes(), "HmacSHA256"))
+          .compact();
+
+        mockMvc.perform(get("/api/users/{username}", "someone-else")
+            .header("Authorization", "Bearer " + legacyToken))
+          .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testCompactToken_RoleMaskClaim_Success() throws Exception {
+        // Compact tokens are opt-in, yet accepted by every node whatever it issues
+        String compactToken = Jwts.builder().claim("rol", UserRole.MOD.mask())
+          .subject("compact-moderator")
+          .expiration(new Date(System.currentTimeMillis() + 60_000))
+          .signWith(new SecretKeySpec(secretKey.getBytes(), "HmacSHA256"))
+          .compact();
+
+        mockMvc.perform(get("/api/users/{username}", "someone-else")
+            .header("Authorization", "Bearer " + compactToken))
+          .andExpect(status().isNotFound());
+    }
+
+}
@@ -0,0 +1,66 @@
+package org.example;
+
+import org.example.entity.UserRole;
+import org.example.service.UserService;
+import org.example.service.security.RevocationStore;
+import org.example.service.security.TokenRevocationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class TokenRevocationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RevocationStore revocationStore;
+
+    @Value("${app.ttl}")
+    private long ttl;
+
+    @Test
+    public void testLogoutEndpoint_RevokeAccessToken_Success() throws Exception {
+        final String username = "leaver";
+        userTestDataFactory.createUser(username);
+        String token = login(username).get("token").asText();
+
+        mockMvc.perform(get("/api/users/{username}", username).header("Authorization", "Bearer " + token))
+          .andExpect(status().isOk());
+        mockMvc.perform(post("/api/auth/logout").header("Authorization", "Bearer " + token))
+          .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/{username}", username).header("Authorization", "Bearer " + token))
+          .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void testSoftDelete_BearerTokenRejected_Error() throws Exception {
+        final String username = "suspended";
+        userTestDataFactory.createUser(username);
+        String token = login(username).get("token").asText();
+        long issuedBefore = System.currentTimeMillis();
+
+        assertThat(userService.softDelete(username, Set.of(UserRole.ADMIN))).isEqualTo(1);
+        mockMvc.perform(get("/api/users/{username}", username).header("Authorization", "Bearer " + token))
+          .andExpect(status().isUnauthorized());
+
+        // A restarted node reloads the revocation from the store
+        TokenRevocationService restarted = new TokenRevocationService(revocationStore, ttl, 5, 1 << 20);
+        restarted.load();
+        assertThat(restarted.isRevoked(null, username, issuedBefore)).isTrue();
+
+        // Enabled again, a new token is accepted
+        assertThat(userService.enable(username)).isEqualTo(1);
+        String newToken = login(username).get("token").asText();
+        mockMvc.perform(get("/api/users/{username}", username).header("Authorization", "Bearer " + newToken))
+          .andExpect(status().isOk());
+    }
+
+}
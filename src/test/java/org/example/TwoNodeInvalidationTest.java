@@ -0,0 +1,181 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.entity.UserRole;
+import org.example.service.UserService;
+import org.example.util.UserTestDataFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two nodes in one JVM sharing the in-memory database and an in-process invalidation bus: node A is the test
+ * context, node B a second application context. Both run on a random port and are called over HTTP.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+  "spring.jpa.show-sql=false",
+  "app.loginRateLimit.enabled=false",
+  "app.password.minStrength=4",
+  "app.password.maxStrength=4",
+  "app.userRoles.backfill.enabled=false",
+  "app.invalidation.transport=in-process",
+  "app.invalidation.group=" + TwoNodeInvalidationTest.GROUP,
+  "app.invalidation.nodeId=node-a"
+})
+public class TwoNodeInvalidationTest {
+
+    static final String GROUP = "two-node-test";
+
+    private static final long DELIVERY_TIMEOUT_MILLIS = 5000;
+
+    private static ConfigurableApplicationContext nodeB;
+
+    @LocalServerPort
+    private int portA;
+
+    private int portB;
+
+    @Autowired
+    private UserTestDataFactory userTestDataFactory;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    public void startNodeB() {
+        if (nodeB == null) {
+            // Arguments, unlike default properties, take precedence over application-dev.yml
+            nodeB = new SpringApplicationBuilder(Application.class)
+              .run("--server.port=0", "--spring.jpa.show-sql=false", "--app.loginRateLimit.enabled=false",
+                "--app.password.minStrength=4", "--app.password.maxStrength=4",
+                "--app.userRoles.backfill.enabled=false", "--app.invalidation.transport=in-process",
+                "--app.invalidation.group=" + GROUP, "--app.invalidation.nodeId=node-b");
+        }
+        portB = nodeB.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    @AfterAll
+    public static void stopNodeB() {
+        if (nodeB != null) {
+            nodeB.close();
+            nodeB = null;
+        }
+    }
+
+    @Test
+    public void testRefreshFamily_RotatedOnOtherNode_ReplayRejected() throws Exception {
+        final String username = "roamingRefresher";
+        userTestDataFactory.createUser(username);
+        String refreshToken = login(username).get("refreshToken").asText();
+
+        // Issued on node A, rotated on node B
+        Counter receivedOnA = meterRegistry.get("invalidation.batches").tag("direction", "received").counter();
+        double receivedBefore = receivedOnA.count();
+        String rotated = objectMapper.readTree(awaitStatus(refresh(portB, refreshToken), 200))
+          .get("refreshToken").asText();
+        awaitCount(receivedOnA, receivedBefore + 1);
+
+        // Replaying the first token on node A revokes the family on both nodes
+        Counter receivedOnB = nodeB.getBean(MeterRegistry.class).get("invalidation.batches")
+          .tag("direction", "received").counter();
+        receivedBefore = receivedOnB.count();
+        assertThat(send(refresh(portA, refreshToken)).statusCode()).isEqualTo(401);
+        awaitCount(receivedOnB, receivedBefore + 1);
+        assertThat(send(refresh(portB, rotated)).statusCode()).isEqualTo(401);
+    }
+
+    @Test
+    public void testSoftDelete_TokenRejectedOnOtherNode_Error() throws Exception {
+        final String username = "roamingUser";
+        userTestDataFactory.createUser(username);
+        JsonNode tokens = login(username);
+        HttpRequest getOnB = request(portB, "/api/users/" + username)
+          .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.get("token").asText())
+          .GET()
+          .build();
+        assertThat(send(getOnB).statusCode()).isEqualTo(200);
+
+        assertThat(userService.softDelete(username, Set.of(UserRole.ADMIN))).isEqualTo(1);
+
+        awaitStatus(getOnB, 401);
+        assertThat(send(refresh(portB, tokens.get("refreshToken").asText())).statusCode()).isEqualTo(401);
+    }
+
+    private JsonNode login(String username) throws Exception {
+        Map<String, String> credentials = Map.of("username", username, "password", UserTestDataFactory.PASSWORD);
+        HttpResponse<String> response = send(request(portA, "/api/auth")
+          .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+          .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(credentials)))
+          .build());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return objectMapper.readTree(response.body());
+    }
+
+    private HttpRequest refresh(int port, String refreshToken) throws Exception {
+        return request(port, "/api/auth/refresh")
+          .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+          .POST(HttpRequest.BodyPublishers.ofString(
+            objectMapper.writeValueAsString(Map.of("refreshToken", refreshToken))))
+          .build();
+    }
+
+    private static HttpRequest.Builder request(int port, String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static void awaitCount(Counter counter, double expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + DELIVERY_TIMEOUT_MILLIS;
+        while (counter.count() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(counter.count()).isGreaterThanOrEqualTo(expected);
+    }
+
+    /**
+     * Repeat the request until the other node has applied the invalidations and answers with the expected status.
+     *
+     * @return Body of the response with the expected status
+     */
+    private String awaitStatus(HttpRequest request, int expectedStatus) throws Exception {
+        long deadline = System.currentTimeMillis() + DELIVERY_TIMEOUT_MILLIS;
+        while (true) {
+            HttpResponse<String> response = send(request);
+            if (response.statusCode() == expectedStatus || System.currentTimeMillis() > deadline) {
+                assertThat(response.statusCode()).isEqualTo(expectedStatus);
+                return response.body();
+            }
+            Thread.sleep(20);
+        }
+    }
+
+}
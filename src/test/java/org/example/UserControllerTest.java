@@ -1,64 +1,65 @@
 package org.example;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.api.request.CreateUserReq;
 import org.example.entity.User;
 import org.example.entity.UserRole;
 import org.example.repository.UserRepository;
-import org.example.util.UserTestDataFactory;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.test.context.support.WithAnonymousUser;
 import org.springframework.security.test.context.support.WithMockUser;
-import org.springframework.test.annotation.DirtiesContext;
-import org.springframework.test.context.junit.jupiter.SpringExtension;
-import org.springframework.test.web.servlet.MockMvc;
-import org.springframework.test.web.servlet.setup.MockMvcBuilders;
-import org.springframework.web.context.WebApplicationContext;
 
-import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@ExtendWith(SpringExtension.class)
-@SpringBootTest
-@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
-public class UserControllerTest {
-
-    @Autowired
-    private WebApplicationContext webApplicationContext;
+public class UserControllerTest extends AbstractIntegrationTest {
 
     @Autowired
     private UserRepository userRepository;
 
-    @Autowired
-    private UserTestDataFactory userTestDataFactory;
-
-    private MockMvc mockMvc;
+    @WithAnonymousUser
+    @Test
+    public void testListUsers_NoAuthenticate_Error() throws Exception {
+        mockMvc.perform(get("/api/users")).andExpect(status().isUnauthorized());
+    }
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    @BeforeEach
-    public void setup() {
-        this.mockMvc = MockMvcBuilders.webAppContextSetup(this.webApplicationContext)
-          .apply(springSecurity())
-          .build();
+    @WithMockUser("tester")
+    @Test
+    public void testListUsers_UserRole_Error() throws Exception {
+        mockMvc.perform(get("/api/users")).andExpect(status().isForbidden());
     }
 
-    @WithAnonymousUser
+    @WithMockUser(username = "mod", roles = {"MOD"})
     @Test
-    public void testUserEndpoint_NoAuthenticate_Success() throws Exception {
-        mockMvc.perform(get("/api/users")).andExpect(status().isOk());
+    public void testListUsers_ModRole_Success() throws Exception {
+        // Prepare data
+        userTestDataFactory.createUser("tester1");
+        userTestDataFactory.createUser("tester2", "Tester", List.of(UserRole.MOD));
+        userTestDataFactory.createUser("tester3");
+
+        String firstPage = mockMvc.perform(get("/api/users").param("size", "2").accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.users.length()").value(2))
+          .andExpect(jsonPath("$.users[0].username").value("tester1"))
+          .andExpect(jsonPath("$.users[1].authorities[0]").value("MOD"))
+          .andExpect(jsonPath("$.nextAfterId").isNumber())
+          .andReturn().getResponse().getContentAsString();
+        long nextAfterId = objectMapper.readTree(firstPage).get("nextAfterId").asLong();
+
+        mockMvc.perform(get("/api/users").param("size", "2").param("afterId", String.valueOf(nextAfterId))
+            .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.users.length()").value(1))
+          .andExpect(jsonPath("$.users[0].username").value("tester3"))
+          .andExpect(jsonPath("$.nextAfterId").doesNotExist());
     }
 
     @WithAnonymousUser
@@ -80,7 +81,7 @@ public class UserControllerTest {
     public void testFindUser_UserRoleFindSameUserName_Success() throws Exception {
         // Prepare data
         final String username = "tester";
-        userTestDataFactory.createUser(username, "Tester", Collections.emptyList());
+        userTestDataFactory.createUser(username);
 
         mockMvc.perform(get(String.format("/api/users/%s", username)).accept(MediaType.APPLICATION_JSON))
           .andExpect(status().isOk())
@@ -92,7 +93,7 @@ public class UserControllerTest {
     public void testFindUser_UserRoleFindAnotherUserName_Error() throws Exception {
         // Prepare data
         final String otherUsername = "testerAnother";
-        userTestDataFactory.createUser(otherUsername, "Tester", Collections.emptyList());
+        userTestDataFactory.createUser(otherUsername);
 
         mockMvc.perform(get(String.format("/api/users/%s", otherUsername)).accept(MediaType.APPLICATION_JSON))
           .andExpect(status().isForbidden())
@@ -104,7 +105,7 @@ public class UserControllerTest {
     public void testFindUser_ModRoleFindAnotherUserName_Success() throws Exception {
         // Prepare data
         final String username = "tester";
-        userTestDataFactory.createUser(username, "Tester", Collections.emptyList());
+        userTestDataFactory.createUser(username);
 
         mockMvc.perform(get(String.format("/api/users/%s", username)).accept(MediaType.APPLICATION_JSON))
           .andExpect(status().isOk())
@@ -116,7 +117,7 @@ public class UserControllerTest {
     public void testFindUser_AdminRoleFindAnotherUserName_Success() throws Exception {
         // Prepare data
         final String username = "tester";
-        userTestDataFactory.createUser(username, "Tester", Collections.emptyList());
+        userTestDataFactory.createUser(username);
 
         mockMvc.perform(get(String.format("/api/users/%s", username)).accept(MediaType.APPLICATION_JSON))
           .andExpect(status().isOk())
@@ -148,7 +149,7 @@ public class UserControllerTest {
     public void testCreateUserDuplicate_Error() throws Exception {
         // Prepare data
         final String username = "tester";
-        userTestDataFactory.createUser(username, "Tester", Collections.emptyList());
+        userTestDataFactory.createUser(username);
 
         CreateUserReq input = new CreateUserReq("tester@gmail.com", username,"xyz789", "xyz789",
           "Tester", "User", "District 1", "HCM", "+8412345678");
@@ -159,4 +160,76 @@ public class UserControllerTest {
           .andExpect(jsonPath("$.token").doesNotExist());
     }
 
+    @Test
+    public void testCreateUserDuplicateEmail_Error() throws Exception {
+        // Prepare data
+        userTestDataFactory.createUser("tester");
+
+        CreateUserReq input = new CreateUserReq("tester@gmail.com", "another", "xyz789", "xyz789",
+          "Tester", "User", "District 1", "HCM", "+8412345678");
+        mockMvc.perform(post("/api/users").content(objectMapper.writeValueAsString(input))
+            .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isUnprocessableEntity())
+          .andExpect(jsonPath("$.message").value("The email already existed"))
+          .andExpect(jsonPath("$.token").doesNotExist());
+    }
+
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    @Test
+    public void testCreateUserBatch_Success() throws Exception {
+        // Prepare data
+        userTestDataFactory.createUser("tester");
+
+        List<CreateUserReq> input = List.of(
+          new CreateUserReq("first@gmail.com", "first", "xyz789", "xyz789", "First", "User", "District 1", "HCM", "+8412345678"),
+          new CreateUserReq("tester2@gmail.com", "tester", "xyz789", "xyz789", "Tester", "User", "District 1", "HCM", "+8412345678"),
+          new CreateUserReq("second@gmail.com", "second", "xyz789", "abc123", "Second", "User", "District 1", "HCM", "+8412345678"),
+          new CreateUserReq("third@gmail.com", "third", "xyz789", "xyz789", "Third", "User", "District 1", "HCM", "+8412345678"));
+        mockMvc.perform(post("/api/users/batch").content(objectMapper.writeValueAsString(input))
+            .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.total").value(4))
+          .andExpect(jsonPath("$.created").value(2))
+          .andExpect(jsonPath("$.results[1].message").value("The username already existed"))
+          .andExpect(jsonPath("$.results[2].message").value("Please check submitted password"))
+          .andExpect(jsonPath("$.rowsPerSecond").exists());
+
+        assertThat(userRepository.findByUsername("first")).isPresent();
+        assertThat(userRepository.findByUsername("second")).isEmpty();
+        assertThat(userRepository.findByUsername("third")).isPresent();
+    }
+
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    @Test
+    public void testCreateUserBatch_MalformedMidway_PartialReport() throws Exception {
+        String first = objectMapper.writeValueAsString(
+          new CreateUserReq("first@gmail.com", "first", "xyz789", "xyz789", "First", "User", "District 1", "HCM", "+8412345678"));
+        mockMvc.perform(post("/api/users/batch").content("[" + first + ", {\"email\": ")
+            .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.error").value(true))
+          .andExpect(jsonPath("$.message").value("Malformed payload at row 1"))
+          .andExpect(jsonPath("$.created").value(1))
+          .andExpect(jsonPath("$.results[0].created").value(true));
+
+        assertThat(userRepository.findByUsername("first")).isPresent();
+    }
+
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    @Test
+    public void testCreateUserBatch_NotAnArray_Error() throws Exception {
+        mockMvc.perform(post("/api/users/batch").content("{}")
+            .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isBadRequest())
+          .andExpect(jsonPath("$.error").value(true));
+    }
+
+    @WithMockUser(username = "mod", roles = {"MOD"})
+    @Test
+    public void testCreateUserBatch_ModRole_Error() throws Exception {
+        mockMvc.perform(post("/api/users/batch").content("[]")
+            .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isForbidden());
+    }
+
 }
@@ -0,0 +1,128 @@
+package org.example;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.api.request.UpdateUserReq;
+import org.example.entity.UserRole;
+import org.example.service.UserDetailsCache;
+import org.example.service.UserService;
+import org.example.util.UserTestDataFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class UserDetailsCacheTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserService userService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void testRepeatedLogin_SingleSelect() throws Exception {
+        final String username = "cachedLogin";
+        userTestDataFactory.createUser(username);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        statistics.clear();
+        long hitsBefore = userDetailsCache.stats().hitCount();
+
+        String payload = objectMapper.writeValueAsString(Map.of("username", username, "password", UserTestDataFactory.PASSWORD));
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/api/auth").content(payload)
+                .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+              .andExpect(status().isOk())
+              .andExpect(jsonPath("$.token").isNotEmpty());
+        }
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(userDetailsCache.stats().hitCount() - hitsBefore).isEqualTo(2);
+    }
+
+    @Test
+    public void testLoginAfterEvict_SecondLevelCacheHit() throws Exception {
+        final String username = "evictedLogin";
+        userTestDataFactory.createUser(username);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        statistics.clear();
+
+        String payload = objectMapper.writeValueAsString(Map.of("username", username, "password", UserTestDataFactory.PASSWORD));
+        mockMvc.perform(post("/api/auth").content(payload).contentType(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk());
+        userDetailsCache.evict(username);
+        mockMvc.perform(post("/api/auth").content(payload).contentType(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk());
+
+        // The evicted user details are rebuilt from the second-level cache, not from the database
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+    }
+
+    @Test
+    public void testUpdate_EvictsCachedUser() throws Exception {
+        final String username = "updatedLogin";
+        userTestDataFactory.createUser(username);
+        login(username, status().isOk());
+
+        userService.update(username, new UpdateUserReq("Updated", "Tester", null, "Ha Noi", "+8412345678"));
+
+        long missesBefore = userDetailsCache.stats().missCount();
+        login(username, status().isOk());
+        assertThat(userDetailsCache.stats().missCount() - missesBefore).isEqualTo(1);
+    }
+
+    @Test
+    public void testSoftDelete_EvictsCachedUser_LoginRejected() throws Exception {
+        final String username = "disabledLogin";
+        userTestDataFactory.createUser(username);
+        login(username, status().isOk());
+
+        assertThat(userService.softDelete(username, Set.of(UserRole.ADMIN))).isEqualTo(1);
+
+        long missesBefore = userDetailsCache.stats().missCount();
+        login(username, status().isUnauthorized());
+        assertThat(userDetailsCache.stats().missCount() - missesBefore).isEqualTo(1);
+    }
+
+    @Test
+    public void testEnable_EvictsCachedUser_LoginAccepted() throws Exception {
+        final String username = "enabledLogin";
+        userTestDataFactory.createUser(username);
+        userService.softDelete(username, Set.of(UserRole.ADMIN));
+        login(username, status().isUnauthorized());
+
+        assertThat(userService.enable(username)).isEqualTo(1);
+
+        long missesBefore = userDetailsCache.stats().missCount();
+        login(username, status().isOk());
+        assertThat(userDetailsCache.stats().missCount() - missesBefore).isEqualTo(1);
+    }
+
+    private void login(String username, ResultMatcher expectedStatus) throws Exception {
+        String payload = objectMapper.writeValueAsString(Map.of("username", username, "password", UserTestDataFactory.PASSWORD));
+        mockMvc.perform(post("/api/auth").content(payload).contentType(MediaType.APPLICATION_JSON))
+          .andExpect(expectedStatus);
+    }
+
+}
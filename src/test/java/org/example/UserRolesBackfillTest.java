@@ -0,0 +1,74 @@
+package org.example;
+
+import org.example.entity.UserRole;
+import org.example.service.UserRolesBackfill;
+import org.example.util.UserTestDataFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class UserRolesBackfillTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserRolesBackfill userRolesBackfill;
+
+    @Test
+    public void testNewUser_DualWrite_Success() {
+        userTestDataFactory.createUser("dualWritten", "Tester", List.of(UserRole.MOD, UserRole.USER));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT roles FROM tb_users WHERE username = 'dualWritten'", Integer.class))
+          .isEqualTo(UserRole.MOD.mask() | UserRole.USER.mask());
+        assertThat(jdbcTemplate.queryForList("SELECT authorities FROM tb_user_authorities WHERE username = 'dualWritten'", String.class))
+          .containsExactlyInAnyOrder("MOD", "USER");
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    public void testLegacyUser_BeforeAndAfterBackfill_Success() throws Exception {
+        // Prepare data: a row written before the roles column existed
+        insertLegacyUser(1_000_000L, "legacyUser", "MOD");
+
+        String credentials = objectMapper.writeValueAsString(Map.of("username", "legacyUser", "password", UserTestDataFactory.PASSWORD));
+        mockMvc.perform(post("/api/auth").content(credentials).contentType(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users").accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.users[0].authorities[0]").value("MOD"));
+
+        assertThat(userRolesBackfill.backfillNextBatch()).isEqualTo(1);
+        assertThat(userRolesBackfill.backfillNextBatch()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT roles FROM tb_users WHERE username = 'legacyUser'", Integer.class))
+          .isEqualTo(UserRole.MOD.mask());
+        mockMvc.perform(get("/api/users").accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.users[0].authorities[0]").value("MOD"));
+    }
+
+    private void insertLegacyUser(long id, String username, String authority) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.update("INSERT INTO tb_users (id, email, username, password, first_name, last_name, city, enabled, " +
+            "created_at, updated_at) VALUES (?, ?, ?, ?, 'Legacy', 'Tester', 'Ho Chi Minh', TRUE, ?, ?)",
+          id, username + "@gmail.com", username, passwordEncoder.encode(UserTestDataFactory.PASSWORD), now, now);
+        jdbcTemplate.update("INSERT INTO tb_user_authorities (username, authorities) VALUES (?, ?)", username, authority);
+    }
+
+}
@@ -0,0 +1,72 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.entity.UserRole;
+import org.example.service.UserService;
+import org.example.util.UserTestDataFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Roles read from the legacy authorities table only, the way back from the bitmask column.
+ */
+@SpringBootTest(properties = {
+  "spring.jpa.show-sql=false",
+  "app.loginRateLimit.enabled=false",
+  "app.password.minStrength=4",
+  "app.password.maxStrength=4",
+  "app.userRoles.backfill.enabled=false",
+  "app.userRoles.storage=collection",
+  "app.userRoles.dualWrite=false"
+})
+@AutoConfigureMockMvc
+public class UserRolesCollectionStorageTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserTestDataFactory userTestDataFactory;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    public void testCollectionStorage_RolesFromLegacyTable_Success() throws Exception {
+        // Prepare data: written to the legacy table although dual writes are off
+        userTestDataFactory.createUser("collected", "Tester", List.of(UserRole.MOD));
+        assertThat(jdbcTemplate.queryForList("SELECT authorities FROM tb_user_authorities WHERE username = 'collected'", String.class))
+          .containsExactly("MOD");
+        // A roles column out of step with the legacy table is ignored
+        jdbcTemplate.update("UPDATE tb_users SET roles = ? WHERE username = 'collected'", UserRole.USER.mask());
+
+        assertThat(userService.loadUserByUsername("collected").getAuthorities())
+          .extracting(authority -> authority.getAuthority()).containsExactly(UserRole.MOD.getAuthority());
+        mockMvc.perform(get("/api/users").accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.users[?(@.username == 'collected')].authorities[0]").value("MOD"));
+        // A moderator is protected from another moderator
+        assertThat(userService.softDelete("collected", Set.of(UserRole.MOD))).isEqualTo(-1);
+    }
+
+}
@@ -0,0 +1,92 @@
+package org.example;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.api.request.UpdateUserReq;
+import org.example.entity.User;
+import org.example.entity.UserRole;
+import org.example.repository.UserRepository;
+import org.example.service.UserService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UserSecondLevelCacheTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void testFindByUsername_Repeated_SingleSelect() {
+        final String username = "cachedUser";
+        userTestDataFactory.createUser(username);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        statistics.clear();
+
+        for (int i = 0; i < 3; i++) {
+            User user = userRepository.findByUsername(username).orElseThrow();
+            assertThat(user.getAuthorities()).containsExactly(UserRole.USER);
+        }
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getNaturalIdCacheHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testUpdate_CachedUser_Refreshed() {
+        final String username = "updatedUser";
+        userTestDataFactory.createUser(username);
+        assertThat(userRepository.findByUsername(username).orElseThrow().getFirstName()).isEqualTo("Tester");
+
+        userService.update(username, new UpdateUserReq("Updated", "Tester", null, "Ha Noi", "+8412345678"));
+        assertThat(userRepository.findByUsername(username).orElseThrow().getFirstName()).isEqualTo("Updated");
+
+        userService.softDelete(username, Set.of(UserRole.ADMIN));
+        assertThat(userRepository.findByUsername(username).orElseThrow().isEnabled()).isFalse();
+
+        userService.enable(username);
+        assertThat(userRepository.findByUsername(username).orElseThrow().isEnabled()).isTrue();
+    }
+
+    @Test
+    public void testUpdate_OtherUsersStayCached() {
+        userTestDataFactory.createUser("updatedUser");
+        userTestDataFactory.createUser("untouchedUser");
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        userRepository.findByUsername("updatedUser").orElseThrow();
+        userRepository.findByUsername("untouchedUser").orElseThrow();
+        statistics.clear();
+
+        userService.update("updatedUser", new UpdateUserReq("Updated", null, null, null, null));
+
+        assertThat(userRepository.findByUsername("untouchedUser").orElseThrow().getFirstName()).isEqualTo("Tester");
+        assertThat(userRepository.findByUsername("updatedUser").orElseThrow().getFirstName()).isEqualTo("Updated");
+        // Only the updated user was evicted and loaded again, the other one is still served from the cache
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getSecondLevelCacheMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testFindByUsername_Missing_Empty() {
+        assertThat(userRepository.findByUsername("missingUser")).isEmpty();
+    }
+
+}
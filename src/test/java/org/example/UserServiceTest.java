@@ -0,0 +1,53 @@
+package org.example;
+
+import org.example.api.request.UpdateUserReq;
+import org.example.entity.User;
+import org.example.repository.UserRepository;
+import org.example.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UserServiceTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void testUpdate_AllFields_Success() {
+        final String username = "tester";
+        userTestDataFactory.createUser(username);
+
+        int updated = userService.update(username, new UpdateUserReq("Updated", "Tester", null, "Ha Noi", "+8412345678"));
+
+        assertThat(updated).isEqualTo(1);
+        User user = userRepository.findByUsername(username).orElseThrow();
+        assertThat(user.getFirstName()).isEqualTo("Updated");
+        assertThat(user.getCity()).isEqualTo("Ha Noi");
+    }
+
+    @Test
+    public void testUpdate_OmittedFields_Kept() {
+        final String username = "tester";
+        User user = userTestDataFactory.createUser(username);
+        user.setAddress("District 1");
+        userRepository.save(user);
+
+        userService.update(username, new UpdateUserReq(null, null, null, "Ha Noi", null));
+
+        User updated = userRepository.findByUsername(username).orElseThrow();
+        assertThat(updated.getCity()).isEqualTo("Ha Noi");
+        assertThat(updated.getFirstName()).isEqualTo("Tester");
+        assertThat(updated.getAddress()).isEqualTo("District 1");
+    }
+
+    @Test
+    public void testUpdate_MissingUser_NothingUpdated() {
+        assertThat(userService.update("missingUser", new UpdateUserReq("Updated", null, null, null, null))).isZero();
+    }
+
+}
@@ -0,0 +1,213 @@
+package org.example.load;
+
+import org.HdrHistogram.Histogram;
+import org.example.Application;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the application on a random port with the in-memory H2 database and drives it from a fixed number of
+ * client threads. Latencies are recorded in microseconds, one histogram per operation.
+ */
+final class LoadTestSupport {
+
+    static final int USERS = Integer.getInteger("load.users", 100);
+
+    static final int CLIENTS = Integer.getInteger("load.clients", 64);
+
+    static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.seconds", 20));
+
+    static final Duration WARMUP = Duration.ofSeconds(Long.getLong("load.warmupSeconds", 5));
+
+    static final Path REPORT_DIR = Path.of(System.getProperty("load.reportDir", "build/reports/load"));
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.SECONDS.toMicros(60);
+
+    private LoadTestSupport() {
+    }
+
+    static ConfigurableApplicationContext start(String... profiles) {
+        return start(List.of(), profiles);
+    }
+
+    static ConfigurableApplicationContext start(List<String> properties, String... profiles) {
+        List<String> allProperties = new ArrayList<>(List.of("server.port=0", "spring.jpa.show-sql=false",
+          "logging.level.org.example=INFO"));
+        allProperties.addAll(properties);
+        // Arguments, unlike default properties, take precedence over application-dev.yml
+        return new SpringApplicationBuilder(Application.class)
+          .profiles(profiles)
+          .run(allProperties.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    static int port(ConfigurableApplicationContext context) {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    static HttpClient httpClient() {
+        return HttpClient.newBuilder()
+          .version(HttpClient.Version.HTTP_1_1)
+          .connectTimeout(Duration.ofSeconds(5))
+          .build();
+    }
+
+    static HttpRequest.Builder request(int port, String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).timeout(Duration.ofSeconds(30));
+    }
+
+    static int send(HttpClient client, HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /**
+     * Run the operation from every client until the warmup and the measured duration have passed.
+     *
+     * @param operation Operation to run, receives the client index
+     * @return Result of the measured phase
+     */
+    static Result run(Operation operation) throws Exception {
+        return run(new Operation[]{operation}, new int[]{1})[0];
+    }
+
+    /**
+     * Run a mix of operations from every client until the warmup and the measured duration have passed. Each
+     * iteration picks one operation with a probability proportional to its weight.
+     *
+     * @param operations Operations to run, receive the client index
+     * @param weights    Relative weight of each operation
+     * @return Result of the measured phase per operation
+     */
+    static Result[] run(Operation[] operations, int[] weights) throws Exception {
+        int[] cumulativeWeights = new int[weights.length];
+        int totalWeight = 0;
+        for (int i = 0; i < weights.length; i++) {
+            totalWeight += weights[i];
+            cumulativeWeights[i] = totalWeight;
+        }
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("No operation has a positive weight");
+        }
+
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            long warmupEnd = System.nanoTime() + WARMUP.toNanos();
+            long end = warmupEnd + DURATION.toNanos();
+            List<Future<Result[]>> futures = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                final int client = i;
+                futures.add(clients.submit(() -> runClient(operations, cumulativeWeights, client, warmupEnd, end)));
+            }
+
+            Result[] total = newResults(operations.length);
+            for (Future<Result[]> future : futures) {
+                Result[] results = future.get();
+                for (int i = 0; i < total.length; i++) {
+                    total[i].add(results[i]);
+                }
+            }
+            return total;
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private static Result[] runClient(Operation[] operations, int[] cumulativeWeights, int client, long warmupEnd,
+                                      long end) throws Exception {
+        Result[] results = newResults(operations.length);
+        int totalWeight = cumulativeWeights[cumulativeWeights.length - 1];
+        long now = System.nanoTime();
+        while (now < end) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int pick = random.nextInt(totalWeight);
+            int index = 0;
+            while (pick >= cumulativeWeights[index]) {
+                index++;
+            }
+            int status = operations[index].execute(client, random);
+            long finished = System.nanoTime();
+            if (now >= warmupEnd) {
+                results[index].record(TimeUnit.NANOSECONDS.toMicros(finished - now), status);
+            }
+            now = finished;
+        }
+        return results;
+    }
+
+    private static Result[] newResults(int count) {
+        Result[] results = new Result[count];
+        for (int i = 0; i < count; i++) {
+            results[i] = new Result();
+        }
+        return results;
+    }
+
+    @FunctionalInterface
+    interface Operation {
+        int execute(int client, ThreadLocalRandom random) throws Exception;
+    }
+
+    static final class Result {
+
+        private final Histogram latencies = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+
+        private long errors;
+
+        void record(long micros, int status) {
+            latencies.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+            if (status >= 400) {
+                errors++;
+            }
+        }
+
+        void add(Result other) {
+            latencies.add(other.latencies);
+            errors += other.errors;
+        }
+
+        Histogram latencies() {
+            return latencies;
+        }
+
+        long errors() {
+            return errors;
+        }
+
+        void print(PrintStream out, String name) {
+            double seconds = DURATION.toMillis() / 1000.0;
+            out.printf("%-24s requests=%d errors=%d throughput=%.1f req/s p50=%dus p90=%dus p99=%dus p99.9=%dus max=%dus%n",
+              name, latencies.getTotalCount(), errors, latencies.getTotalCount() / seconds,
+              latencies.getValueAtPercentile(50), latencies.getValueAtPercentile(90),
+              latencies.getValueAtPercentile(99), latencies.getValueAtPercentile(99.9), latencies.getMaxValue());
+        }
+
+        /**
+         * Write the full percentile distribution in HdrHistogram's {@code .hgrm} format, in milliseconds.
+         */
+        void writeHistogram(String name) throws IOException {
+            Files.createDirectories(REPORT_DIR);
+            Path file = REPORT_DIR.resolve(name + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                latencies.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,105 @@
+package org.example.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.api.request.CreateUserReq;
+import org.example.entity.UserRole;
+import org.example.service.security.JwtTokenProvider;
+import org.example.util.UserTestDataFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mixed workload of logins, token-authenticated reads and registrations from {@code load.clients} concurrent
+ * clients against {@code load.users} seeded users. The mix is set with {@code load.mix.login},
+ * {@code load.mix.read} and {@code load.mix.register} as relative weights. Run with {@code ./gradlew loadTest};
+ * the latency distribution of every operation is written to {@code load.reportDir}.
+ * <p>
+ * Login rate limiting is disabled, the seeded users log in far more often than the per-user limit allows.
+ */
+@Tag("load")
+public class MixedWorkloadLoadTest {
+
+    private static final String[] NAMES = {"login", "read", "register"};
+
+    private static final int[] WEIGHTS = {
+      Integer.getInteger("load.mix.login", 5),
+      Integer.getInteger("load.mix.read", 80),
+      Integer.getInteger("load.mix.register", 15)
+    };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testMixedWorkload() throws Exception {
+        try (ConfigurableApplicationContext context = LoadTestSupport.start(List.of("app.loginRateLimit.enabled=false"))) {
+            int port = LoadTestSupport.port(context);
+            UserTestDataFactory userTestDataFactory = context.getBean(UserTestDataFactory.class);
+            JwtTokenProvider jwtTokenProvider = context.getBean(JwtTokenProvider.class);
+
+            // Seeding hashes a password per user, spread it over the cores
+            IntStream.range(0, LoadTestSupport.USERS).parallel()
+              .forEach(i -> userTestDataFactory.createUser("mixed" + i, "Load", Collections.emptyList()));
+
+            HttpRequest[] logins = new HttpRequest[LoadTestSupport.USERS];
+            HttpRequest[] reads = new HttpRequest[LoadTestSupport.USERS];
+            for (int i = 0; i < LoadTestSupport.USERS; i++) {
+                String username = "mixed" + i;
+                String bearer = "Bearer " + jwtTokenProvider.generateToken(username, Set.of(UserRole.USER));
+                String credentials = objectMapper.writeValueAsString(
+                  Map.of("username", username, "password", UserTestDataFactory.PASSWORD));
+
+                logins[i] = LoadTestSupport.request(port, "/api/auth")
+                  .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                  .POST(HttpRequest.BodyPublishers.ofString(credentials))
+                  .build();
+                reads[i] = LoadTestSupport.request(port, "/api/users/" + username)
+                  .header(HttpHeaders.AUTHORIZATION, bearer)
+                  .GET()
+                  .build();
+            }
+
+            HttpClient client = LoadTestSupport.httpClient();
+            AtomicInteger registrations = new AtomicInteger();
+            LoadTestSupport.Result[] results = LoadTestSupport.run(new LoadTestSupport.Operation[]{
+              (clientIndex, random) -> LoadTestSupport.send(client, logins[random.nextInt(logins.length)]),
+              (clientIndex, random) -> LoadTestSupport.send(client, reads[random.nextInt(reads.length)]),
+              (clientIndex, random) -> LoadTestSupport.send(client, registration(port, registrations.incrementAndGet()))
+            }, WEIGHTS);
+
+            LoadTestSupport.Result total = new LoadTestSupport.Result();
+            for (int i = 0; i < results.length; i++) {
+                results[i].print(System.out, NAMES[i]);
+                results[i].writeHistogram("mixed-" + NAMES[i]);
+                total.add(results[i]);
+            }
+            total.print(System.out, "total");
+            total.writeHistogram("mixed-total");
+            assertThat(total.errors()).isZero();
+        }
+    }
+
+    private HttpRequest registration(int port, int sequence) throws Exception {
+        String username = "registered" + sequence;
+        CreateUserReq request = new CreateUserReq(username + "@gmail.com", username, UserTestDataFactory.PASSWORD,
+          UserTestDataFactory.PASSWORD, "Load", "Tester", null, "Ho Chi Minh", "+84" + (100000000 + sequence));
+        return LoadTestSupport.request(port, "/api/users")
+          .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+          .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(request)))
+          .build();
+    }
+
+}
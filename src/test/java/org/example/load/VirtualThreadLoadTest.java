@@ -0,0 +1,65 @@
+package org.example.load;
+
+import org.example.entity.UserRole;
+import org.example.service.security.JwtTokenProvider;
+import org.example.util.UserTestDataFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares the latency of {@code GET /api/users/{username}}, a blocking JDBC read, with Tomcat on platform threads
+ * and on virtual threads. Run with {@code ./gradlew loadTest}. The build targets Java 17, so the test is skipped
+ * unless the tests run on a Java 21+ runtime; on 17 both runs would use platform threads.
+ */
+@Tag("load")
+public class VirtualThreadLoadTest {
+
+    private static final int VIRTUAL_THREADS_MIN_VERSION = 21;
+
+    @Test
+    public void testUserRead_PlatformVsVirtualThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= VIRTUAL_THREADS_MIN_VERSION,
+          "Virtual threads need a Java " + VIRTUAL_THREADS_MIN_VERSION + "+ runtime");
+        LoadTestSupport.Result platform = runUserReads();
+        LoadTestSupport.Result virtual = runUserReads("virtual");
+
+        platform.print(System.out, "platform threads");
+        virtual.print(System.out, "virtual threads");
+        assertThat(platform.errors()).isZero();
+        assertThat(virtual.errors()).isZero();
+    }
+
+    private LoadTestSupport.Result runUserReads(String... profiles) throws Exception {
+        try (ConfigurableApplicationContext context = LoadTestSupport.start(profiles)) {
+            int port = LoadTestSupport.port(context);
+            UserTestDataFactory userTestDataFactory = context.getBean(UserTestDataFactory.class);
+            JwtTokenProvider jwtTokenProvider = context.getBean(JwtTokenProvider.class);
+
+            HttpRequest[] requests = new HttpRequest[LoadTestSupport.USERS];
+            for (int i = 0; i < requests.length; i++) {
+                String username = "load" + i;
+                userTestDataFactory.createUser(username, "Load", Collections.emptyList());
+                String token = jwtTokenProvider.generateToken(username, Set.of(UserRole.USER));
+                requests[i] = LoadTestSupport.request(port, "/api/users/" + username)
+                  .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                  .GET()
+                  .build();
+            }
+
+            HttpClient client = LoadTestSupport.httpClient();
+            return LoadTestSupport.run((clientIndex, random) ->
+              LoadTestSupport.send(client, requests[random.nextInt(requests.length)]));
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+package org.example.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.service.UserDetailsCache;
+import org.example.service.security.JwtTokenProvider;
+import org.example.service.security.RefreshTokenFamilyStore;
+import org.example.service.security.TokenRevocationService;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Empties every table of the in-memory database, the caches derived from it and the in-memory token state
+ * (revocations, refresh token families and verified tokens), so tests can share one application context instead of
+ * rebuilding it. Truncation also resets what the code under test committed in its own transactions, which a
+ * rollback of the test transaction would not.
+ * <p>
+ * The token state has no reset in the production API, it is reached by reflection on the fields of the services.
+ */
+@Component
+public class DatabaseCleaner {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private RefreshTokenFamilyStore refreshTokenFamilyStore;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    private List<String> tables;
+
+    public void clean() {
+        if (tables == null) {
+            tables = jdbcTemplate.queryForList("SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES " +
+              "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'BASE TABLE'", String.class);
+        }
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        try {
+            for (String table : tables) {
+                jdbcTemplate.execute("TRUNCATE TABLE \"" + table + "\"");
+            }
+        } finally {
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        }
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        userDetailsCache.evictAll();
+        invalidateAll(tokenRevocationService, "revokedTokenIds");
+        invalidateAll(tokenRevocationService, "revokedSubjects");
+        AtomicReferenceArray<?> segments =
+          (AtomicReferenceArray<?>) ReflectionTestUtils.getField(tokenRevocationService, "segments");
+        for (int i = 0; i < segments.length(); i++) {
+            segments.set(i, null);
+        }
+        invalidateAll(refreshTokenFamilyStore, "families");
+        invalidateAll(jwtTokenProvider, "verifiedTokens");
+    }
+
+    /**
+     * Empty the Caffeine cache held in the field, if the service built one.
+     */
+    private static void invalidateAll(Object service, String field) {
+        Cache<?, ?> cache = (Cache<?, ?>) ReflectionTestUtils.getField(service, field);
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+}
@@ -8,6 +8,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -22,6 +23,13 @@ public class UserTestDataFactory {
     @Autowired
     private PasswordEncoder bCryptPasswordEncoder;
 
+    /**
+     * Create a user with the {@link UserRole#USER} role and the first name "Tester".
+     */
+    public User createUser(String username) {
+        return createUser(username, "Tester", Collections.emptyList());
+    }
+
     public User createUser(String username, String firstName, Collection<UserRole> authorities) {
         User savedEntity = new User();
         savedEntity.setUsername(username);